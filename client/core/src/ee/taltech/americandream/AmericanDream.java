@@ -6,9 +6,13 @@ import com.badlogic.gdx.graphics.OrthographicCamera;
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryonet.Client;
 import helper.BulletData;
+import helper.BulletDelta;
 import helper.Direction;
+import helper.MessageBus;
 import helper.PlayerState;
+import helper.PlayerStateDelta;
 import helper.packet.*;
+import helper.serializer.*;
 
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -26,6 +30,8 @@ public class AmericanDream extends Game {
     public static void setupConnection(String IPAddress) {
         client = new Client();
         registerClasses();
+        // received messages are handled on the render thread
+        client.addListener(MessageBus.getInstance());
         client.start();
         try {
             client.connect(CONNECTION_TIMEOUT, IPAddress, PORTS[0], PORTS[1]);
@@ -39,17 +45,17 @@ public class AmericanDream extends Game {
     /**
      * This method registers classes for serialization.
      * Classes that are sent over the network need to be registered.
+     * Registration order must match the server.
      */
     private static void registerClasses() {
         // register classes for serialization
         Kryo kryo = client.getKryo();
-        kryo.register(GameStateMessage.class);
-        kryo.register(PlayerPositionMessage.class);
+        kryo.register(GameStateMessage.class, new GameStateMessageSerializer());
+        kryo.register(PlayerInputMessage.class, new PlayerInputMessageSerializer());
         kryo.register(PlayerState[].class);
-        kryo.register(PlayerState.class);
+        kryo.register(PlayerState.class, new PlayerStateSerializer());
         kryo.register(Direction.class);
-        kryo.register(BulletMessage.class);
-        kryo.register(BulletData.class);
+        kryo.register(BulletData.class, new BulletDataSerializer());
         kryo.register(ArrayList.class);
         kryo.register(LobbyDataMessage.class);
         kryo.register(HashMap.class);
@@ -59,6 +65,14 @@ public class AmericanDream extends Game {
         kryo.register(MapSelectionMessage.class);
         kryo.register(GunBoxMessage.class);
         kryo.register(GunPickupMessage.class);
+        kryo.register(GameStateDeltaMessage.class, new GameStateDeltaMessageSerializer());
+        kryo.register(PlayerStateDelta.class, new PlayerStateDeltaSerializer());
+        kryo.register(PlayerStateDelta[].class);
+        kryo.register(BulletDelta.class, new BulletDeltaSerializer());
+        kryo.register(int[].class);
+        kryo.register(PlayerNamesMessage.class);
+        kryo.register(String[].class);
+        kryo.register(ProjectileEventMessage.class);
     }
 
     /**
@@ -78,6 +92,15 @@ public class AmericanDream extends Game {
         setScreen(new TitleScreen(camera));
     }
 
+    /**
+     * Handle the messages received since the previous frame and render the current screen.
+     */
+    @Override
+    public void render() {
+        MessageBus.getInstance().dispatch();
+        super.render();
+    }
+
     /**
      * This method is called when the game is closed.
      */
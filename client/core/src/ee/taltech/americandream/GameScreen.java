@@ -14,6 +14,7 @@ import com.badlogic.gdx.physics.box2d.World;
 import com.badlogic.gdx.scenes.scene2d.Stage;
 import helper.CollisionHandler;
 import helper.Audio;
+import helper.MessageBus;
 import helper.TileMapHelper;
 import helper.packet.GameLeaveMessage;
 import helper.packet.GunPickupMessage;
@@ -92,6 +93,7 @@ public class GameScreen extends ScreenAdapter {
         this.offScreenIndicator = new OffScreenIndicator(player.getDimensions());
         this.collisionHandler = new CollisionHandler();
         this.world.setContactFilter(collisionHandler);
+        collisionHandler.removeGunBoxTaken(gunBoxList, player.getName());
         hud.setGunPickupText(player.getName());
     }
 
@@ -176,6 +178,8 @@ public class GameScreen extends ScreenAdapter {
         if (remoteManager.getGameTime().isPresent()) {
             tileMapHelper.update(remoteManager.getGameTime().get());
         }
+        remoteManager.update();
+        player.setLastSnapshotTick(remoteManager.getLastSnapshotTick());
         player.update(delta, mapCenterPoint, remoteManager.getLocalPlayerState());
         if (AIGame) AIPlayer.update(delta, mapCenterPoint, remoteManager.getAIPlayerState(), remoteManager.getBulletData(), player);
         hud.update(remoteManager.getGameTime(), player, remoteManager.getRemotePlayers(), Optional.ofNullable(AIPlayer), delta);
@@ -196,7 +200,6 @@ public class GameScreen extends ScreenAdapter {
                 hud.showGunPickupLabel();
             }
         }
-        collisionHandler.removeGunBoxTaken(gunBoxList, player.getName());
     }
 
     /**
@@ -225,6 +228,16 @@ public class GameScreen extends ScreenAdapter {
         camera.update();
     }
 
+    /**
+     * Stop handling messages when another screen is shown.
+     */
+    @Override
+    public void hide() {
+        MessageBus.getInstance().unsubscribe(remoteManager);
+        MessageBus.getInstance().unsubscribe(tileMapHelper);
+        MessageBus.getInstance().unsubscribe(collisionHandler);
+    }
+
     /**
      * This method is called when the game is closed.
      */
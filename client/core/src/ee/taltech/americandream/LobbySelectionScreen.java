@@ -13,8 +13,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
-import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
+import helper.MessageBus;
 import helper.packet.JoinLobbyMessage;
 import helper.packet.LobbyDataMessage;
 
@@ -46,15 +45,7 @@ public class LobbySelectionScreen extends ScreenAdapter {
         Label placeholder = createLabel("Loading lobbies...", Color.WHITE, 1f);
         table.add(placeholder).row();
 
-        AmericanDream.client.addListener(new Listener() {
-            @Override
-            public void received(Connection connection, Object object) {
-                super.received(connection, object);
-                if (object instanceof LobbyDataMessage) {
-                    lobbyDataMessage = (LobbyDataMessage) object;
-                }
-            }
-        });
+        MessageBus.getInstance().subscribe(this, LobbyDataMessage.class, message -> lobbyDataMessage = message);
 
         // add table to screen
         stage.addActor(table);
@@ -142,6 +133,14 @@ public class LobbySelectionScreen extends ScreenAdapter {
         updateCounter = 0;
     }
 
+    /**
+     * Stop handling messages when another screen is shown.
+     */
+    @Override
+    public void hide() {
+        MessageBus.getInstance().unsubscribe(this);
+    }
+
     @Override
     public void dispose() {
         super.dispose();
@@ -15,8 +15,7 @@ import com.badlogic.gdx.scenes.scene2d.ui.Label;
 import com.badlogic.gdx.scenes.scene2d.ui.Table;
 import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
 import com.badlogic.gdx.scenes.scene2d.utils.ChangeListener;
-import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
+import helper.MessageBus;
 import helper.packet.GameLeaveMessage;
 import helper.packet.LobbyDataMessage;
 import helper.packet.MapSelectionMessage;
@@ -93,14 +92,9 @@ public class MapSelectionScreen extends ScreenAdapter {
         stage.addActor(backTable);
 
         stage.addActor(table);
-        AmericanDream.client.addListener(new Listener() {
-            @Override
-            public void received(Connection connection, Object object) {
-                if (object instanceof LobbyDataMessage) {
-                    Map<Integer, String> mapsMap = ((LobbyDataMessage) object).maps;
-                    selectedMap = mapsMap.get(id);
-                }
-            }
+        MessageBus.getInstance().subscribe(this, LobbyDataMessage.class, lobbyDataMessage -> {
+            Map<Integer, String> mapsMap = lobbyDataMessage.maps;
+            selectedMap = mapsMap.get(id);
         });
     }
 
@@ -161,6 +155,14 @@ public class MapSelectionScreen extends ScreenAdapter {
         stage.getViewport().update(width, height, true);
     }
 
+    /**
+     * Stop handling messages when another screen is shown.
+     */
+    @Override
+    public void hide() {
+        MessageBus.getInstance().unsubscribe(this);
+    }
+
     /**
      * Handle changing screen size.
      */
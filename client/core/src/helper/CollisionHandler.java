@@ -4,9 +4,6 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.Input;
 import com.badlogic.gdx.physics.box2d.*;
 import com.badlogic.gdx.utils.Array;
-import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
-import ee.taltech.americandream.AmericanDream;
 import helper.packet.GunPickupMessage;
 import helper.packet.LobbyDataMessage;
 import objects.gun.GunBox;
@@ -43,19 +40,14 @@ public class CollisionHandler implements ContactFilter {
         }
         return gunPickupMessage;
     }
-    // to remove gunboxes other players have taken
+    // to remove gunboxes other players have taken, subscribed once per game
     public void removeGunBoxTaken(List<GunBox> gunBoxes, String characterName) {
-        AmericanDream.client.addListener(new Listener() {
-            @Override
-            public void received(Connection connection, Object object) {
-                if (object instanceof GunPickupMessage) {
-                    if (!characterName.contains(((GunPickupMessage) object).character)) {
-                        for (int i = 0; i < gunBoxes.size(); i++) {
-                            for (Integer id : ((GunPickupMessage) object).ids)
-                                if (id.equals(gunBoxes.get(i).getId())) {
-                                    gunBoxes.get(i).remove();
-                            }
-                        }
+        MessageBus.getInstance().subscribe(this, GunPickupMessage.class, gunPickupMessage -> {
+            if (!characterName.contains(gunPickupMessage.character)) {
+                for (int i = 0; i < gunBoxes.size(); i++) {
+                    for (Integer id : gunPickupMessage.ids)
+                        if (id.equals(gunBoxes.get(i).getId())) {
+                            gunBoxes.get(i).remove();
                     }
                 }
             }
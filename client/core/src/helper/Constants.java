@@ -35,6 +35,27 @@ public class Constants {
     public static final String IP_ADDRESS = "193.40.255.24";
     public static final Vector2 BULLET_DIMENSIONS = new Vector2(20, 20);
     public static final int LIVES_COUNT = 3;
+    // how many received snapshots are kept for applying deltas, must match the server
+    public static final int SNAPSHOT_HISTORY_SIZE = 32;
+    // positions are sent as fixed-point numbers, must match the server
+    public static final float POSITION_PRECISION = 2f;
+    public static final float VELOCITY_PRECISION = 100f;
+    // server ticks per second, used for moving bullets between game states
+    public static final int SERVER_TICK_RATE = 60;
+    // how many ticks the bullets can be moved ahead of the latest game state
+    public static final int MAX_EXTRAPOLATION_TICKS = 10;
+    // how many unacknowledged input commands are resent in every input message
+    public static final int INPUT_REDUNDANCY = 5;
+    // remote players and the UFO are rendered this many server ticks in the past, covers two game states at 20 Hz
+    public static final int INTERPOLATION_DELAY_TICKS = 6;
+    // how many received game states are kept for interpolation
+    public static final int INTERPOLATION_BUFFER_SIZE = 16;
+    // how many sent commands are kept for comparing the predicted position with the server's
+    public static final int PREDICTION_HISTORY_SIZE = 120;
+    // in pixels, smaller differences from the server's position are quantization
+    public static final float RECONCILIATION_TOLERANCE = 2f;
+    // the server limits every command to this move, must match the server's MAX_MOVE_PER_COMMAND
+    public static final float MAX_MOVE_PER_COMMAND = 64f;
     public static final int FRAME_WIDTH = 64;
     public static final int FRAME_HEIGHT = 74;
     public static final float FRAME_DURATION = 0.3f;
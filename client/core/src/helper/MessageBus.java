@@ -0,0 +1,105 @@
+package helper;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.FrameworkMessage;
+import com.esotericsoftware.kryonet.Listener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * The only listener of the client. Messages received by the network thread are queued and passed to the
+ * handlers subscribed for their class once per frame on the render thread,
+ * so handlers can change game objects without synchronization.
+ * Screens and game objects subscribe once and unsubscribe when their screen is hidden.
+ */
+public class MessageBus extends Listener {
+    private static MessageBus instance;
+    private final Queue<Object> inbox = new ConcurrentLinkedQueue<>();
+    // message class -> subscriptions, only used on the render thread
+    // the lists are replaced instead of modified, so dispatch keeps iterating the list it started with
+    private final Map<Class<?>, List<Subscription<?>>> subscriptions = new HashMap<>();
+
+    public static MessageBus getInstance() {
+        if (instance == null) {
+            instance = new MessageBus();
+        }
+        return instance;
+    }
+
+    @Override
+    public void received(Connection connection, Object object) {
+        if (object instanceof FrameworkMessage) return;
+        inbox.add(object);
+    }
+
+    /**
+     * Handle messages of the given class on the render thread until the owner unsubscribes.
+     */
+    public <T> void subscribe(Object owner, Class<T> type, Consumer<T> handler) {
+        List<Subscription<?>> typeSubscriptions = subscriptions.get(type);
+        List<Subscription<?>> updated = typeSubscriptions == null ? new ArrayList<>() : new ArrayList<>(typeSubscriptions);
+        updated.add(new Subscription<>(owner, type, handler));
+        subscriptions.put(type, updated);
+    }
+
+    /**
+     * Remove all handlers of the owner. They are not called again, not even for the message being dispatched.
+     */
+    public void unsubscribe(Object owner) {
+        for (Map.Entry<Class<?>, List<Subscription<?>>> entry : subscriptions.entrySet()) {
+            List<Subscription<?>> updated = new ArrayList<>();
+            for (Subscription<?> subscription : entry.getValue()) {
+                if (subscription.owner == owner) {
+                    subscription.active = false;
+                } else {
+                    updated.add(subscription);
+                }
+            }
+            if (updated.size() != entry.getValue().size()) {
+                entry.setValue(updated);
+            }
+        }
+    }
+
+    /**
+     * Pass all queued messages to their handlers in the order they were received.
+     * Called by the render thread once per frame.
+     */
+    public void dispatch() {
+        Object message;
+        while ((message = inbox.poll()) != null) {
+            List<Subscription<?>> typeSubscriptions = subscriptions.get(message.getClass());
+            if (typeSubscriptions == null) continue;
+            // handlers may subscribe and unsubscribe, e.g. by changing the screen, which replaces the list:
+            // handlers subscribed during dispatch get the next message, unsubscribed ones are skipped
+            for (Subscription<?> subscription : typeSubscriptions) {
+                if (subscription.active) {
+                    subscription.handle(message);
+                }
+            }
+        }
+    }
+
+    private static class Subscription<T> {
+        private final Object owner;
+        private final Class<T> type;
+        private final Consumer<T> handler;
+        private boolean active = true;
+
+        Subscription(Object owner, Class<T> type, Consumer<T> handler) {
+            this.owner = owner;
+            this.type = type;
+            this.handler = handler;
+        }
+
+        void handle(Object message) {
+            handler.accept(type.cast(message));
+        }
+    }
+}
@@ -4,6 +4,9 @@ import static helper.Constants.LIVES_COUNT;
 
 public class PlayerState {
     public int id;
+    // index of the player in the game
+    public int entityId;
+    // not sent with every game state, filled in from PlayerNamesMessage by RemoteManager
     public String name;
     public float x;
     public float y;
@@ -11,10 +14,36 @@ public class PlayerState {
     public Direction direction;
     public Integer livesCount;
     public int isShooting;
-    public Integer damage;
+    public int damage;
+    // knockback of the latest hit, applied by the client once per hitSequence
     public float applyForce;
     public int ammoCount;
     public boolean thisIsAI;
+    // sequence of the latest PlayerCommand the server has applied, acknowledges the client's input
+    public int lastInputSequence;
+    // number of times the player has been hit, stays in every snapshot so that a skipped or lost one doesn't lose the hit
+    public int hitSequence;
+
+    public PlayerState copy() {
+        PlayerState copy = new PlayerState();
+        copy.id = id;
+        copy.entityId = entityId;
+        copy.name = name;
+        copy.x = x;
+        copy.y = y;
+        copy.velX = velX;
+        copy.velY = velY;
+        copy.direction = direction;
+        copy.livesCount = livesCount;
+        copy.isShooting = isShooting;
+        copy.damage = damage;
+        copy.applyForce = applyForce;
+        copy.ammoCount = ammoCount;
+        copy.thisIsAI = thisIsAI;
+        copy.lastInputSequence = lastInputSequence;
+        copy.hitSequence = hitSequence;
+        return copy;
+    }
 
     public float getX() {
         return this.x;
@@ -0,0 +1,79 @@
+package helper;
+
+import helper.packet.GameStateDeltaMessage;
+import helper.packet.GameStateMessage;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static helper.PlayerStateDelta.*;
+
+public class SnapshotDelta {
+
+    /**
+     * Reconstruct the full snapshot by applying a delta to the baseline snapshot.
+     * The baseline itself is not modified.
+     * @param baseline previously received snapshot with the tick of delta.baselineTick
+     * @param delta changes since the baseline
+     */
+    public static GameStateMessage apply(GameStateMessage baseline, GameStateDeltaMessage delta) {
+        GameStateMessage snapshot = new GameStateMessage();
+        snapshot.tick = delta.tick;
+        snapshot.gameTime = delta.gameTime;
+        snapshot.ufoPlayerX = delta.ufoPlayerX;
+        snapshot.ufoPlayerY = delta.ufoPlayerY;
+
+        // players
+        snapshot.playerStates = new PlayerState[baseline.playerStates.length];
+        for (int i = 0; i < baseline.playerStates.length; i++) {
+            snapshot.playerStates[i] = baseline.playerStates[i].copy();
+        }
+        for (PlayerStateDelta playerDelta : delta.playerDeltas) {
+            applyPlayer(snapshot.playerStates[playerDelta.index], playerDelta);
+        }
+
+        // bullets
+        Map<Integer, BulletDelta> changedBullets = new HashMap<>();
+        for (BulletDelta bulletDelta : delta.changedBullets) {
+            changedBullets.put(bulletDelta.bulletId, bulletDelta);
+        }
+        Set<Integer> removedBullets = new HashSet<>();
+        for (int bulletId : delta.removedBullets) {
+            removedBullets.add(bulletId);
+        }
+        snapshot.bulletData = new ArrayList<>();
+        for (BulletData bullet : baseline.bulletData) {
+            if (removedBullets.contains(bullet.bulletId)) continue;
+            BulletData copy = bullet.copy();
+            BulletDelta bulletDelta = changedBullets.get(bullet.bulletId);
+            if (bulletDelta != null) {
+                copy.x = bulletDelta.x;
+                copy.isDisabled = bulletDelta.isDisabled;
+            }
+            snapshot.bulletData.add(copy);
+        }
+        snapshot.bulletData.addAll(delta.newBullets);
+        return snapshot;
+    }
+
+    private static void applyPlayer(PlayerState ps, PlayerStateDelta delta) {
+        if (delta.hasChanged(ID)) ps.id = delta.id;
+        if (delta.hasChanged(ENTITY_ID)) ps.entityId = delta.entityId;
+        if (delta.hasChanged(X)) ps.x = delta.x;
+        if (delta.hasChanged(Y)) ps.y = delta.y;
+        if (delta.hasChanged(DIRECTION)) ps.direction = delta.direction;
+        if (delta.hasChanged(LIVES_COUNT)) ps.livesCount = delta.livesCount;
+        if (delta.hasChanged(VEL_X)) ps.velX = delta.velX;
+        if (delta.hasChanged(VEL_Y)) ps.velY = delta.velY;
+        if (delta.hasChanged(IS_SHOOTING)) ps.isShooting = delta.isShooting;
+        if (delta.hasChanged(DAMAGE)) ps.damage = delta.damage;
+        if (delta.hasChanged(APPLY_FORCE)) ps.applyForce = delta.applyForce;
+        if (delta.hasChanged(AMMO_COUNT)) ps.ammoCount = delta.ammoCount;
+        if (delta.hasChanged(THIS_IS_AI)) ps.thisIsAI = delta.thisIsAI;
+        if (delta.hasChanged(LAST_INPUT_SEQUENCE)) ps.lastInputSequence = delta.lastInputSequence;
+        if (delta.hasChanged(HIT_SEQUENCE)) ps.hitSequence = delta.hitSequence;
+    }
+}
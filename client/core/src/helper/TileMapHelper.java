@@ -13,9 +13,6 @@ import com.badlogic.gdx.physics.box2d.Body;
 import com.badlogic.gdx.physics.box2d.BodyDef;
 import com.badlogic.gdx.physics.box2d.PolygonShape;
 import com.badlogic.gdx.physics.box2d.Shape;
-import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
-import ee.taltech.americandream.AmericanDream;
 import ee.taltech.americandream.GameScreen;
 import helper.packet.GunBoxMessage;
 import objects.gun.GunBox;
@@ -33,6 +30,7 @@ public class TileMapHelper {
     // gunbox timers for the gunbox message to work correctly
     private float lastGunBoxSpawn = 300;
     private float gunBoxSpawnDelay = 1;
+    private Integer gameTime;
 
     /**
      * Initialize TileMapHelper which loads the tilemap background, tile outlines and objects.
@@ -40,6 +38,7 @@ public class TileMapHelper {
     public TileMapHelper(GameScreen gameScreen, String selectedCharacter) {
         this.gameScreen = gameScreen;
         this.selectedCharacter = selectedCharacter;
+        MessageBus.getInstance().subscribe(this, GunBoxMessage.class, this::spawnGunBox);
     }
 
     /**
@@ -52,7 +51,7 @@ public class TileMapHelper {
         return new OrthogonalTiledMapRenderer(tiledMap);
     }
     public void update(Integer gameTime) {
-        spawnGunBox(tiledMap.getLayers().get("objects").getObjects(), gameTime);
+        this.gameTime = gameTime;
     }
     /**
      * Load tilemap objects such as the player itself to enable collisions.
@@ -103,35 +102,34 @@ public class TileMapHelper {
             }
         }
     }
-    public void spawnGunBox(MapObjects mapObjects, Integer gameTime) {
-        AmericanDream.client.addListener(new Listener() {
-            @Override
-            public void received(Connection connection, Object object) {
-                if (object instanceof GunBoxMessage && (lastGunBoxSpawn - gameTime) > gunBoxSpawnDelay) {
-                    lastGunBoxSpawn = gameTime;
-                    for (int i = 0; i < mapObjects.getCount(); i++) {
-                        MapObject mapObject = mapObjects.get(i);
-                        if (mapObject instanceof RectangleMapObject) {
-                            Rectangle rectangle = ((RectangleMapObject) mapObject).getRectangle();
-                            String rectangleName = mapObject.getName();
-                            if (rectangleName.contains("gunbox")) {
-                                Body body = BodyHelperService.createBody(
-                                        ((GunBoxMessage) object).x,
-                                        ((GunBoxMessage) object).y,
-                                        rectangle.getWidth(),
-                                        rectangle.getHeight(),
-                                        false,
-                                        gameScreen.getWorld(),
-                                        new GunBox(gameScreen.getWorld().createBody(new BodyDef()),
-                                                ((GunBoxMessage) object).id)
-                                );
-                                gameScreen.addGunBox(new GunBox(body, ((GunBoxMessage) object).id));
-                            }
-                        }
-                    }
+    /**
+     * Spawn a gunbox at the position sent by the server.
+     * Receives: GunBoxMessage
+     */
+    private void spawnGunBox(GunBoxMessage gunBoxMessage) {
+        // game hasn't started yet
+        if (gameTime == null || (lastGunBoxSpawn - gameTime) <= gunBoxSpawnDelay) return;
+        lastGunBoxSpawn = gameTime;
+        MapObjects mapObjects = tiledMap.getLayers().get("objects").getObjects();
+        for (int i = 0; i < mapObjects.getCount(); i++) {
+            MapObject mapObject = mapObjects.get(i);
+            if (mapObject instanceof RectangleMapObject) {
+                Rectangle rectangle = ((RectangleMapObject) mapObject).getRectangle();
+                String rectangleName = mapObject.getName();
+                if (rectangleName.contains("gunbox")) {
+                    Body body = BodyHelperService.createBody(
+                            gunBoxMessage.x,
+                            gunBoxMessage.y,
+                            rectangle.getWidth(),
+                            rectangle.getHeight(),
+                            false,
+                            gameScreen.getWorld(),
+                            new GunBox(gameScreen.getWorld().createBody(new BodyDef()), gunBoxMessage.id)
+                    );
+                    gameScreen.addGunBox(new GunBox(body, gunBoxMessage.id));
                 }
             }
-        });
+        }
     }
     /**
      * Create static objects such as platforms.
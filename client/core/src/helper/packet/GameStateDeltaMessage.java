@@ -0,0 +1,24 @@
+package helper.packet;
+
+import helper.BulletData;
+import helper.BulletDelta;
+import helper.PlayerStateDelta;
+
+import java.util.List;
+
+public class GameStateDeltaMessage {
+    public int tick;
+    // tick of the acknowledged snapshot that this delta is built against
+    public int baselineTick;
+    public int gameTime;
+    public float ufoPlayerX;
+    public float ufoPlayerY;
+    // only players that have changed since the baseline
+    public PlayerStateDelta[] playerDeltas;
+    // bullets that are not in the baseline
+    public List<BulletData> newBullets;
+    // bullets that are in the baseline, but have moved or got disabled
+    public List<BulletDelta> changedBullets;
+    // bulletIds of baseline bullets that no longer exist
+    public int[] removedBullets;
+}
@@ -6,6 +6,8 @@ import helper.PlayerState;
 import java.util.List;
 
 public class GameStateMessage {
+    // server tick the snapshot was made on, clients acknowledge it in PlayerInputMessage
+    public int tick;
     public PlayerState[] playerStates;
     public List<BulletData> bulletData;
     public int gameTime;
@@ -0,0 +1,12 @@
+package helper.packet;
+
+import helper.PlayerCommand;
+
+public class PlayerInputMessage {
+    public String name;
+    public boolean thisIsAI;
+    // latest GameStateMessage tick the client has received, -1 if none
+    public int lastSnapshotTick = -1;
+    // commands not yet acknowledged by the server, oldest first, resent until acknowledged
+    public PlayerCommand[] commands;
+}
@@ -1,13 +0,0 @@
-package helper.packet;
-
-import helper.Direction;
-
-public class PlayerPositionMessage {
-    public float x;
-    public float y;
-    public Direction direction;
-    public Integer livesCount;
-    public String name;
-    public float velX, velY;
-    public int isShooting;
-}
@@ -0,0 +1,13 @@
+package helper.packet;
+
+import helper.BulletData;
+
+import java.util.List;
+
+public class ProjectileEventMessage {
+    // tick the bullet positions were taken on, bullet x on tick t is x + speedBullet * (t - tick)
+    public int tick;
+    public List<BulletData> spawned;
+    // bulletIds of previously sent bullets that have hit something or flown out of bounds
+    public int[] removed;
+}
@@ -0,0 +1,46 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import helper.BulletData;
+
+import static helper.serializer.WireFormat.*;
+
+public class BulletDataSerializer extends Serializer<BulletData> {
+    // bits packed together with the bulletId
+    private static final int IS_DISABLED = 1;
+    private static final int SHOT_WITH_GUN = 1 << 1;
+    private static final int FLAG_BITS = 2;
+
+    /**
+     * Pack the two booleans into the lowest bits of the bulletId varint, positions and speed as fixed-point varints.
+     */
+    @Override
+    public void write(Kryo kryo, Output output, BulletData bullet) {
+        int flags = 0;
+        if (bullet.isDisabled) flags |= IS_DISABLED;
+        if (bullet.shotWithGun) flags |= SHOT_WITH_GUN;
+        output.writeVarInt(bullet.bulletId << FLAG_BITS | flags, true);
+        // UFO bullets have ownerId -1
+        output.writeByte(bullet.ownerId);
+        writePosition(output, bullet.x);
+        writePosition(output, bullet.y);
+        writeVelocity(output, bullet.speedBullet);
+    }
+
+    @Override
+    public BulletData read(Kryo kryo, Input input, Class<BulletData> type) {
+        BulletData bullet = new BulletData();
+        int idAndFlags = input.readVarInt(true);
+        bullet.bulletId = idAndFlags >>> FLAG_BITS;
+        bullet.isDisabled = (idAndFlags & IS_DISABLED) != 0;
+        bullet.shotWithGun = (idAndFlags & SHOT_WITH_GUN) != 0;
+        bullet.ownerId = input.readByte();
+        bullet.x = readPosition(input);
+        bullet.y = readPosition(input);
+        bullet.speedBullet = readVelocity(input);
+        return bullet;
+    }
+}
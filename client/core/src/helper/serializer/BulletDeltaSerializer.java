@@ -0,0 +1,32 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import helper.BulletDelta;
+
+import static helper.serializer.WireFormat.readPosition;
+import static helper.serializer.WireFormat.writePosition;
+
+public class BulletDeltaSerializer extends Serializer<BulletDelta> {
+
+    /**
+     * Pack isDisabled into the lowest bit of the bulletId varint, followed by the fixed-point x coordinate.
+     */
+    @Override
+    public void write(Kryo kryo, Output output, BulletDelta delta) {
+        output.writeVarInt(delta.bulletId << 1 | (delta.isDisabled ? 1 : 0), true);
+        writePosition(output, delta.x);
+    }
+
+    @Override
+    public BulletDelta read(Kryo kryo, Input input, Class<BulletDelta> type) {
+        BulletDelta delta = new BulletDelta();
+        int idAndFlag = input.readVarInt(true);
+        delta.bulletId = idAndFlag >>> 1;
+        delta.isDisabled = (idAndFlag & 1) != 0;
+        delta.x = readPosition(input);
+        return delta;
+    }
+}
@@ -0,0 +1,78 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import helper.BulletData;
+import helper.BulletDelta;
+import helper.PlayerStateDelta;
+import helper.packet.GameStateDeltaMessage;
+
+import java.util.ArrayList;
+
+import static helper.serializer.WireFormat.*;
+
+public class GameStateDeltaMessageSerializer extends Serializer<GameStateDeltaMessage> {
+
+    /**
+     * Write counts as varints and the baseline tick as an offset from the current tick.
+     * The delta message is never null-filled by the server, so the lists and arrays are always present.
+     */
+    @Override
+    public void write(Kryo kryo, Output output, GameStateDeltaMessage message) {
+        output.writeVarInt(message.tick, true);
+        output.writeVarInt(message.tick - message.baselineTick, true);
+        output.writeVarInt(message.gameTime, true);
+        writePosition(output, message.ufoPlayerX);
+        writePosition(output, message.ufoPlayerY);
+
+        output.writeVarInt(message.playerDeltas.length, true);
+        for (PlayerStateDelta playerDelta : message.playerDeltas) {
+            kryo.writeObject(output, playerDelta);
+        }
+        output.writeVarInt(message.newBullets.size(), true);
+        // indexed loops, an iterator would be allocated for every message
+        for (int i = 0; i < message.newBullets.size(); i++) {
+            kryo.writeObject(output, message.newBullets.get(i));
+        }
+        output.writeVarInt(message.changedBullets.size(), true);
+        for (int i = 0; i < message.changedBullets.size(); i++) {
+            kryo.writeObject(output, message.changedBullets.get(i));
+        }
+        output.writeVarInt(message.removedBullets.length, true);
+        for (int bulletId : message.removedBullets) {
+            output.writeVarInt(bulletId, true);
+        }
+    }
+
+    @Override
+    public GameStateDeltaMessage read(Kryo kryo, Input input, Class<GameStateDeltaMessage> type) {
+        GameStateDeltaMessage message = new GameStateDeltaMessage();
+        message.tick = input.readVarInt(true);
+        message.baselineTick = message.tick - input.readVarInt(true);
+        message.gameTime = input.readVarInt(true);
+        message.ufoPlayerX = readPosition(input);
+        message.ufoPlayerY = readPosition(input);
+
+        message.playerDeltas = new PlayerStateDelta[input.readVarInt(true)];
+        for (int i = 0; i < message.playerDeltas.length; i++) {
+            message.playerDeltas[i] = kryo.readObject(input, PlayerStateDelta.class);
+        }
+        int newBulletCount = input.readVarInt(true);
+        message.newBullets = new ArrayList<>(newBulletCount);
+        for (int i = 0; i < newBulletCount; i++) {
+            message.newBullets.add(kryo.readObject(input, BulletData.class));
+        }
+        int changedBulletCount = input.readVarInt(true);
+        message.changedBullets = new ArrayList<>(changedBulletCount);
+        for (int i = 0; i < changedBulletCount; i++) {
+            message.changedBullets.add(kryo.readObject(input, BulletDelta.class));
+        }
+        message.removedBullets = new int[input.readVarInt(true)];
+        for (int i = 0; i < message.removedBullets.length; i++) {
+            message.removedBullets[i] = input.readVarInt(true);
+        }
+        return message;
+    }
+}
@@ -0,0 +1,66 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import helper.BulletData;
+import helper.PlayerState;
+import helper.packet.GameStateMessage;
+
+import java.util.ArrayList;
+
+import static helper.serializer.WireFormat.*;
+
+public class GameStateMessageSerializer extends Serializer<GameStateMessage> {
+
+    /**
+     * Write counts as varints and players and bullets without per-element class ids.
+     */
+    @Override
+    public void write(Kryo kryo, Output output, GameStateMessage message) {
+        output.writeVarInt(message.tick, true);
+        output.writeVarInt(message.gameTime, true);
+        writePosition(output, message.ufoPlayerX);
+        writePosition(output, message.ufoPlayerY);
+
+        writeCount(output, message.playerStates == null ? 0 : message.playerStates.length, message.playerStates == null);
+        if (message.playerStates != null) {
+            for (PlayerState ps : message.playerStates) {
+                kryo.writeObject(output, ps);
+            }
+        }
+        writeCount(output, message.bulletData == null ? 0 : message.bulletData.size(), message.bulletData == null);
+        if (message.bulletData != null) {
+            // indexed loop, an iterator would be allocated for every message
+            for (int i = 0; i < message.bulletData.size(); i++) {
+                kryo.writeObject(output, message.bulletData.get(i));
+            }
+        }
+    }
+
+    @Override
+    public GameStateMessage read(Kryo kryo, Input input, Class<GameStateMessage> type) {
+        GameStateMessage message = new GameStateMessage();
+        message.tick = input.readVarInt(true);
+        message.gameTime = input.readVarInt(true);
+        message.ufoPlayerX = readPosition(input);
+        message.ufoPlayerY = readPosition(input);
+
+        int playerCount = readCount(input);
+        if (playerCount >= 0) {
+            message.playerStates = new PlayerState[playerCount];
+            for (int i = 0; i < playerCount; i++) {
+                message.playerStates[i] = kryo.readObject(input, PlayerState.class);
+            }
+        }
+        int bulletCount = readCount(input);
+        if (bulletCount >= 0) {
+            message.bulletData = new ArrayList<>(bulletCount);
+            for (int i = 0; i < bulletCount; i++) {
+                message.bulletData.add(kryo.readObject(input, BulletData.class));
+            }
+        }
+        return message;
+    }
+}
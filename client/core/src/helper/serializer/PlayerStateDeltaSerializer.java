@@ -0,0 +1,78 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import helper.Direction;
+import helper.PlayerStateDelta;
+
+import static helper.PlayerStateDelta.*;
+import static helper.serializer.WireFormat.*;
+
+public class PlayerStateDeltaSerializer extends Serializer<PlayerStateDelta> {
+
+    /**
+     * Write the changed fields bitmask followed by only the fields that have changed.
+     */
+    @Override
+    public void write(Kryo kryo, Output output, PlayerStateDelta delta) {
+        output.writeVarInt(delta.index, true);
+        output.writeVarInt(delta.changedFields, true);
+        if (delta.hasChanged(ID)) output.writeVarInt(delta.id, true);
+        if (delta.hasChanged(ENTITY_ID)) output.writeByte(delta.entityId);
+        if (delta.hasChanged(X)) writePosition(output, delta.x);
+        if (delta.hasChanged(Y)) writePosition(output, delta.y);
+        // direction is null until the client has sent its first position, 0 is reserved for null
+        if (delta.hasChanged(DIRECTION)) output.writeVarInt(delta.direction == null ? 0 : delta.direction.ordinal() + 1, true);
+        if (delta.hasChanged(LIVES_COUNT)) writeNullableInt(output, delta.livesCount);
+        if (delta.hasChanged(VEL_X)) writeVelocity(output, delta.velX);
+        if (delta.hasChanged(VEL_Y)) writeVelocity(output, delta.velY);
+        if (delta.hasChanged(IS_SHOOTING)) output.writeVarInt(delta.isShooting, false);
+        if (delta.hasChanged(DAMAGE)) output.writeVarInt(delta.damage, true);
+        if (delta.hasChanged(APPLY_FORCE)) writeForce(output, delta.applyForce);
+        if (delta.hasChanged(AMMO_COUNT)) output.writeVarInt(delta.ammoCount, true);
+        if (delta.hasChanged(THIS_IS_AI)) output.writeBoolean(delta.thisIsAI);
+        if (delta.hasChanged(LAST_INPUT_SEQUENCE)) output.writeVarInt(delta.lastInputSequence, false);
+        if (delta.hasChanged(HIT_SEQUENCE)) output.writeVarInt(delta.hitSequence, true);
+    }
+
+    @Override
+    public PlayerStateDelta read(Kryo kryo, Input input, Class<PlayerStateDelta> type) {
+        PlayerStateDelta delta = new PlayerStateDelta();
+        delta.index = input.readVarInt(true);
+        delta.changedFields = input.readVarInt(true);
+        if (delta.hasChanged(ID)) delta.id = input.readVarInt(true);
+        if (delta.hasChanged(ENTITY_ID)) delta.entityId = input.readByte();
+        if (delta.hasChanged(X)) delta.x = readPosition(input);
+        if (delta.hasChanged(Y)) delta.y = readPosition(input);
+        if (delta.hasChanged(DIRECTION)) {
+            int direction = input.readVarInt(true);
+            delta.direction = direction == 0 ? null : Direction.values()[direction - 1];
+        }
+        if (delta.hasChanged(LIVES_COUNT)) delta.livesCount = readNullableInt(input);
+        if (delta.hasChanged(VEL_X)) delta.velX = readVelocity(input);
+        if (delta.hasChanged(VEL_Y)) delta.velY = readVelocity(input);
+        if (delta.hasChanged(IS_SHOOTING)) delta.isShooting = input.readVarInt(false);
+        if (delta.hasChanged(DAMAGE)) delta.damage = input.readVarInt(true);
+        if (delta.hasChanged(APPLY_FORCE)) delta.applyForce = readForce(input);
+        if (delta.hasChanged(AMMO_COUNT)) delta.ammoCount = input.readVarInt(true);
+        if (delta.hasChanged(THIS_IS_AI)) delta.thisIsAI = input.readBoolean();
+        if (delta.hasChanged(LAST_INPUT_SEQUENCE)) delta.lastInputSequence = input.readVarInt(false);
+        if (delta.hasChanged(HIT_SEQUENCE)) delta.hitSequence = input.readVarInt(true);
+        return delta;
+    }
+
+    /**
+     * Lives can go below zero while a dead player keeps falling, so the value is zigzag encoded.
+     */
+    private static void writeNullableInt(Output output, Integer value) {
+        output.writeBoolean(value != null);
+        if (value != null) output.writeVarInt(value, false);
+    }
+
+    private static Integer readNullableInt(Input input) {
+        if (!input.readBoolean()) return null;
+        return input.readVarInt(false);
+    }
+}
@@ -0,0 +1,72 @@
+package objects;
+
+import helper.BulletData;
+import helper.PlayerState;
+import objects.player.RemotePlayer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Remote players, bullets and the UFO shown in one frame.
+ * Messages are handled by MessageBus on the render thread before the frame is rendered, so nothing changes
+ * the frame while it is read. RemoteManager fills the same frame again at the start of the next frame.
+ * Bullets and remote players are the objects that RemoteManager keeps between frames, they only change
+ * when RemoteManager updates them for the next frame.
+ */
+public class RemoteFrame {
+    private PlayerState[] playerStates;
+    private final List<RemotePlayer> remotePlayers = new ArrayList<>();
+    private final List<RemotePlayer> remotePlayersView = Collections.unmodifiableList(remotePlayers);
+    private final List<BulletData> bullets = new ArrayList<>();
+    private final List<BulletData> bulletsView = Collections.unmodifiableList(bullets);
+    private boolean hasBullets = false;
+    private float ufoX;
+    private float ufoY;
+
+    /**
+     * Start filling the frame, forgetting its previous contents.
+     * @param playerStates player states of the interpolated game state, not modified afterwards
+     * @param hasBullets false if no bullets have been received yet
+     */
+    void reset(PlayerState[] playerStates, boolean hasBullets, float ufoX, float ufoY) {
+        this.playerStates = playerStates;
+        this.hasBullets = hasBullets;
+        this.ufoX = ufoX;
+        this.ufoY = ufoY;
+        remotePlayers.clear();
+        bullets.clear();
+    }
+
+    void addRemotePlayer(RemotePlayer remotePlayer) {
+        remotePlayers.add(remotePlayer);
+    }
+
+    void addBullet(BulletData bullet) {
+        bullets.add(bullet);
+    }
+
+    public PlayerState[] getPlayerStates() {
+        return playerStates;
+    }
+
+    public List<RemotePlayer> getRemotePlayers() {
+        return remotePlayersView;
+    }
+
+    /**
+     * @return bullets or null if no bullets have been received yet
+     */
+    public List<BulletData> getBullets() {
+        return hasBullets ? bulletsView : null;
+    }
+
+    public float getUfoX() {
+        return ufoX;
+    }
+
+    public float getUfoY() {
+        return ufoY;
+    }
+}
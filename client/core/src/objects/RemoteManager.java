@@ -5,89 +5,211 @@ import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.graphics.g2d.TextureAtlas;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.World;
-import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
 import ee.taltech.americandream.AmericanDream;
 import helper.Audio;
 import helper.BulletData;
+import helper.MessageBus;
 import helper.PlayerState;
+import helper.SnapshotDelta;
 import helper.Textures;
+import helper.packet.GameStateDeltaMessage;
 import helper.packet.GameStateMessage;
+import helper.packet.PlayerNamesMessage;
+import helper.packet.ProjectileEventMessage;
 import objects.bullet.RemoteBullet;
+import objects.bullet.SimulatedBullet;
 import objects.gun.GunBox;
 import objects.player.RemotePlayer;
 
 import java.util.*;
 
 import static helper.Constants.GRAVITY;
+import static helper.Constants.INTERPOLATION_DELAY_TICKS;
+import static helper.Constants.MAX_EXTRAPOLATION_TICKS;
+import static helper.Constants.SERVER_TICK_RATE;
+import static helper.Constants.SNAPSHOT_HISTORY_SIZE;
 import static helper.Constants.UFO_SIZE;
 
 public class RemoteManager {
-    private List<RemotePlayer> remotePlayers = new ArrayList<>();
+    // entityId -> remote player, kept between game states so that animations continue
+    private final Map<Integer, RemotePlayer> remotePlayersById = new HashMap<>();
+    private final SnapshotInterpolator interpolator = new SnapshotInterpolator();
+    private final TextureAtlas textureAtlas;
     private Integer gameTime = null;
-    private List<BulletData> remoteBullets;
-    private PlayerState[] allPlayerStates;
+    // bullets of the latest game state, used until the server sends projectile events
+    private List<BulletData> receivedBullets;
     private PlayerState localPlayerState;
     private PlayerState AIPlayerState;
-    private float ufoPlayerX;
-    private float ufoPlayerY;
     private float onHitForce;
+    // hitSequence of the local player's latest hit that has been played
+    private int lastHitSequence = 0;
+    private final GameStateMessage[] receivedSnapshots = new GameStateMessage[SNAPSHOT_HISTORY_SIZE];
+    private int lastSnapshotTick = -1;
+    private long lastSnapshotTime;
+    // bulletId -> bullet moved on the client, used once the server sends projectile events
+    private final Map<Integer, SimulatedBullet> simulatedBullets = new HashMap<>();
+    private boolean projectileEvents = false;
+    // filled by update() and read while the same frame is rendered
+    private final RemoteFrame frame = new RemoteFrame();
+    // entityId -> player name
+    private String[] playerNames = new String[0];
 
     /**
      * Initialize RemoteManager that controls all data and functionality regarding remote players.
      */
     public RemoteManager() {
-        TextureAtlas textureAtlas = new TextureAtlas(Gdx.files.internal("spriteatlas/SoldierSprites.atlas"));
-
-        AmericanDream.client.addListener(new Listener() {
-            public void received(Connection connection, Object object) {
-                if (object instanceof GameStateMessage) {
-                    GameStateMessage gameStateMessage = (GameStateMessage) object;
-                    allPlayerStates = gameStateMessage.playerStates;
-                    // handle game state message
-                    remotePlayers = new ArrayList<>();
-
-                    // UFO
-                    ufoPlayerX = gameStateMessage.ufoPlayerX;
-                    ufoPlayerY = gameStateMessage.ufoPlayerY;
-
-                    // check if incoming bullets list is bigger than the current one
-                    // when it is, play gun sound effect
-                    if (remoteBullets != null && gameStateMessage.bulletData != null
-                            && gameStateMessage.bulletData.size() > remoteBullets.size()) {
-                        Audio.getInstance().playSound(Audio.SoundType.GUNSHOT);
-                    }
+        textureAtlas = new TextureAtlas(Gdx.files.internal("spriteatlas/SoldierSprites.atlas"));
 
-                    // overwrite the remote bullets list with new data
-                    remoteBullets = gameStateMessage.bulletData;
-
-                    for (int i = 0; i < gameStateMessage.playerStates.length; i++) {
-                        PlayerState ps = gameStateMessage.playerStates[i];
-                        if (ps.id != AmericanDream.id) {
-                            // not current client
-                            remotePlayers.add(new RemotePlayer(ps, textureAtlas));
-                        } else {
-                            if (ps.thisIsAI) {
-                                AIPlayerState = ps;
-                            } else {
-                                localPlayerState = ps;
-                                if (ps.applyForce != 0) {
-                                    Audio.getInstance().playSound(Audio.SoundType.HIT);
-                                    onHitForce = ps.applyForce;
-                                }
-                            }
-                        }
-                    }
-                    // play begin sound effect when game starts
-                    if (gameStateMessage.gameTime != 0 && gameTime == null) {
-                        Audio.getInstance().playSound(Audio.SoundType.START);
-                    }
+        MessageBus messageBus = MessageBus.getInstance();
+        messageBus.subscribe(this, GameStateMessage.class, gameStateMessage -> {
+            receivedSnapshots[gameStateMessage.tick % SNAPSHOT_HISTORY_SIZE] = gameStateMessage;
+            handleGameState(gameStateMessage);
+        });
+        messageBus.subscribe(this, GameStateDeltaMessage.class, deltaMessage -> {
+            GameStateMessage baseline = receivedSnapshots[deltaMessage.baselineTick % SNAPSHOT_HISTORY_SIZE];
+            // baseline has been overwritten, server will send a full snapshot once the ack gets too old
+            if (baseline == null || baseline.tick != deltaMessage.baselineTick) return;
+            GameStateMessage gameStateMessage = SnapshotDelta.apply(baseline, deltaMessage);
+            receivedSnapshots[gameStateMessage.tick % SNAPSHOT_HISTORY_SIZE] = gameStateMessage;
+            handleGameState(gameStateMessage);
+        });
+        messageBus.subscribe(this, ProjectileEventMessage.class, this::handleProjectileEvents);
+        // names are only sent when they change
+        messageBus.subscribe(this, PlayerNamesMessage.class, message -> playerNames = message.names);
+    }
+
+    /**
+     * Update local player state, bullets and game time according to a full game state.
+     * Remote players and the UFO are updated from the interpolation buffer every frame.
+     * Snapshots that arrive out of order are only kept as possible delta baselines.
+     */
+    private void handleGameState(GameStateMessage gameStateMessage) {
+        if (gameStateMessage.tick <= lastSnapshotTick) return;
+        lastSnapshotTick = gameStateMessage.tick;
+        lastSnapshotTime = System.currentTimeMillis();
+
+        // bullets are simulated locally when the server sends projectile events
+        if (!projectileEvents) {
+            // check if incoming bullets list is bigger than the current one
+            // when it is, play gun sound effect
+            if (receivedBullets != null && gameStateMessage.bulletData != null
+                    && gameStateMessage.bulletData.size() > receivedBullets.size()) {
+                Audio.getInstance().playSound(Audio.SoundType.GUNSHOT);
+            }
 
-                    // Game duration in seconds, changes occur in server
-                    gameTime = (gameStateMessage.gameTime);
+            // overwrite the remote bullets list with new data
+            receivedBullets = gameStateMessage.bulletData;
+        }
+
+        for (int i = 0; i < gameStateMessage.playerStates.length; i++) {
+            PlayerState ps = gameStateMessage.playerStates[i];
+            if (ps.entityId >= 0 && ps.entityId < playerNames.length) {
+                ps.name = playerNames[ps.entityId];
+            }
+            if (ps.id == AmericanDream.id) {
+                if (ps.thisIsAI) {
+                    AIPlayerState = ps;
+                } else {
+                    localPlayerState = ps;
+                    if (ps.hitSequence != lastHitSequence) {
+                        lastHitSequence = ps.hitSequence;
+                        Audio.getInstance().playSound(Audio.SoundType.HIT);
+                        onHitForce = ps.applyForce;
+                    }
                 }
             }
-        });
+        }
+        // play begin sound effect when game starts
+        if (gameStateMessage.gameTime != 0 && gameTime == null) {
+            Audio.getInstance().playSound(Audio.SoundType.START);
+        }
+
+        // Game duration in seconds, changes occur in server
+        gameTime = (gameStateMessage.gameTime);
+        interpolator.add(gameStateMessage);
+    }
+
+    /**
+     * Start simulating newly shot bullets and remove the ones that have hit something or flown out of bounds.
+     */
+    private void handleProjectileEvents(ProjectileEventMessage projectileEventMessage) {
+        projectileEvents = true;
+        for (BulletData bullet : projectileEventMessage.spawned) {
+            simulatedBullets.put(bullet.bulletId, new SimulatedBullet(bullet, projectileEventMessage.tick));
+        }
+        for (int bulletId : projectileEventMessage.removed) {
+            simulatedBullets.remove(bulletId);
+        }
+        if (!projectileEventMessage.spawned.isEmpty()) {
+            Audio.getInstance().playSound(Audio.SoundType.GUNSHOT);
+        }
+    }
+
+    /**
+     * Update remote players, the UFO and simulated bullets and publish them as the frame's state.
+     * Called once every frame.
+     */
+    public void update() {
+        if (lastSnapshotTick < 0) return;
+        float serverTick = estimateServerTick();
+        GameStateMessage snapshot = interpolator.sample(serverTick - INTERPOLATION_DELAY_TICKS);
+        if (snapshot == null) return;
+        frame.reset(snapshot.playerStates, projectileEvents || receivedBullets != null,
+                snapshot.ufoPlayerX, snapshot.ufoPlayerY);
+        updateRemotePlayers(snapshot);
+        if (projectileEvents) {
+            updateProjectiles(serverTick);
+        } else if (receivedBullets != null) {
+            for (int i = 0; i < receivedBullets.size(); i++) {
+                frame.addBullet(receivedBullets.get(i));
+            }
+        }
+    }
+
+    /**
+     * Estimate the current server tick from the latest game state and the time since it arrived.
+     */
+    private float estimateServerTick() {
+        float elapsedTicks = (System.currentTimeMillis() - lastSnapshotTime) / 1000f * SERVER_TICK_RATE;
+        return lastSnapshotTick + Math.min(elapsedTicks, MAX_EXTRAPOLATION_TICKS);
+    }
+
+    /**
+     * Move remote players to where they were in the interpolated game state.
+     */
+    private void updateRemotePlayers(GameStateMessage snapshot) {
+        for (PlayerState ps : snapshot.playerStates) {
+            // not current client
+            if (ps.id == AmericanDream.id) continue;
+            String name = ps.name != null ? ps.name : "";
+            RemotePlayer rp = remotePlayersById.get(ps.entityId);
+            // animations depend on the character, which is only known once the name has arrived
+            if (rp == null || !rp.getName().equals(name)) {
+                rp = new RemotePlayer(ps, textureAtlas);
+                remotePlayersById.put(ps.entityId, rp);
+            } else {
+                rp.setState(ps);
+            }
+            frame.addRemotePlayer(rp);
+        }
+    }
+
+    /**
+     * Move simulated bullets to the server tick.
+     */
+    private void updateProjectiles(float serverTick) {
+        for (SimulatedBullet bullet : simulatedBullets.values()) {
+            bullet.update(serverTick);
+            frame.addBullet(bullet.getBulletData());
+        }
+    }
+
+    /**
+     * Get the tick of the latest received game state. Sent back to the server as an acknowledgement,
+     * so that the server can send only the changes since that game state.
+     */
+    public int getLastSnapshotTick() {
+        return lastSnapshotTick;
     }
 
     /**
@@ -122,26 +244,26 @@ public class RemoteManager {
     }
 
     /**
-     * Get server-sided game time in seconds. Used for updating HUD timer.
+     * Get the bullets of the current frame, used by the AI player for dodging. The list can't be modified.
      */
     public Optional<List<BulletData>> getBulletData() {
-        if (remoteBullets != null) {
-            return Optional.of(remoteBullets);
-        }
-        return Optional.empty();
+        return Optional.ofNullable(frame.getBullets());
     }
 
     /**
-     * Return remote players list if it contains at least 1 remote player.
+     * Return the remote players of the current frame, the list can't be modified.
      */
     public List<RemotePlayer> getRemotePlayers() {
-        return new ArrayList<>(remotePlayers);
+        return frame.getRemotePlayers();
     }
 
     /**
      * Get all players' state if none of them is null. Check for ufoPlayer.
      */
     public Optional<PlayerState[]> getAllPlayerStates() {
+        PlayerState[] allPlayerStates = frame.getPlayerStates();
+        float ufoPlayerX = frame.getUfoX();
+        float ufoPlayerY = frame.getUfoY();
         // does not contain null -> contains info about both players
         if (allPlayerStates != null
                 && allPlayerStates.length == Arrays.stream(allPlayerStates).filter(x -> x != null).toArray().length) {
@@ -168,12 +290,12 @@ public class RemoteManager {
      * @param delta            delta time
      */
     public void renderPlayers(SpriteBatch batch, Vector2 playerDimensions, float delta) {
-        if (!remotePlayers.isEmpty()) {
-            for (RemotePlayer rp : new ArrayList<>(remotePlayers)) {
-                if (!Objects.equals(rp.getLivesCount(), 0)) {  // ignores null
-                    rp.update(delta);
-                    rp.render(batch, playerDimensions, remotePlayers.indexOf(rp));
-                }
+        List<RemotePlayer> remotePlayers = frame.getRemotePlayers();
+        for (int i = 0; i < remotePlayers.size(); i++) {
+            RemotePlayer rp = remotePlayers.get(i);
+            if (!Objects.equals(rp.getLivesCount(), 0)) {  // ignores null
+                rp.update(delta);
+                rp.render(batch, playerDimensions, i);
             }
         }
     }
@@ -182,9 +304,9 @@ public class RemoteManager {
      * Render UFO if it exists.
      */
     public void renderUFO(SpriteBatch batch) {
-        if (ufoPlayerX == 0 && ufoPlayerY == 0) return;
+        if (frame.getUfoX() == 0 && frame.getUfoY() == 0) return;
 
-        batch.draw(Textures.ALIEN_TEXTURE, ufoPlayerX, ufoPlayerY, UFO_SIZE.width, UFO_SIZE.height);
+        batch.draw(Textures.ALIEN_TEXTURE, frame.getUfoX(), frame.getUfoY(), UFO_SIZE.width, UFO_SIZE.height);
     }
 
     /**
@@ -193,6 +315,7 @@ public class RemoteManager {
      * @param batch spritebatch
      */
     public void renderBullets(SpriteBatch batch) {
+        List<BulletData> remoteBullets = frame.getBullets();
         if (remoteBullets != null) {
             for (BulletData bullet : remoteBullets) {
                 if (bullet.isDisabled) continue;
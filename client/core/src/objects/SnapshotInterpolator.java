@@ -0,0 +1,94 @@
+package objects;
+
+import helper.PlayerState;
+import helper.packet.GameStateMessage;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+
+import static helper.Constants.INTERPOLATION_BUFFER_SIZE;
+import static helper.Constants.MAX_EXTRAPOLATION_TICKS;
+
+/**
+ * Jitter buffer of received game states.
+ * Remote players and the UFO are rendered a little in the past, between the two game states
+ * around the render tick, so that late or missing game states do not make them stutter.
+ */
+public class SnapshotInterpolator {
+    // oldest first
+    private final Deque<GameStateMessage> snapshots = new ArrayDeque<>();
+
+    /**
+     * Add a game state, older game states than the newest one must be dropped before.
+     */
+    public void add(GameStateMessage snapshot) {
+        snapshots.addLast(snapshot);
+        while (snapshots.size() > INTERPOLATION_BUFFER_SIZE) {
+            snapshots.removeFirst();
+        }
+    }
+
+    /**
+     * Construct the game state at the given tick. Player and UFO positions are interpolated between
+     * the game states before and after the tick, other values are taken from the earlier game state.
+     * Past the newest game state the movement is extrapolated for up to MAX_EXTRAPOLATION_TICKS.
+     * @param renderTick fractional server tick
+     * @return game state or null if nothing has been received yet
+     */
+    public GameStateMessage sample(float renderTick) {
+        if (snapshots.isEmpty()) return null;
+        if (renderTick <= snapshots.peekFirst().tick) return snapshots.peekFirst();
+        if (snapshots.size() == 1) return snapshots.peekFirst();
+
+        GameStateMessage from = null;
+        GameStateMessage to = null;
+        Iterator<GameStateMessage> iterator = snapshots.descendingIterator();
+        while (iterator.hasNext()) {
+            GameStateMessage snapshot = iterator.next();
+            if (snapshot.tick <= renderTick) {
+                from = snapshot;
+                break;
+            }
+            to = snapshot;
+        }
+        if (to == null) {
+            // render tick is past the newest game state, continue the movement between the last two
+            Iterator<GameStateMessage> newestFirst = snapshots.descendingIterator();
+            to = newestFirst.next();
+            from = newestFirst.next();
+            renderTick = Math.min(renderTick, to.tick + MAX_EXTRAPOLATION_TICKS);
+        }
+        float alpha = (renderTick - from.tick) / (to.tick - from.tick);
+        return interpolate(from, to, alpha);
+    }
+
+    private static GameStateMessage interpolate(GameStateMessage from, GameStateMessage to, float alpha) {
+        GameStateMessage snapshot = new GameStateMessage();
+        snapshot.tick = from.tick;
+        snapshot.gameTime = from.gameTime;
+        snapshot.bulletData = from.bulletData;
+        // the UFO appears and disappears, (0, 0) means no UFO
+        if ((from.ufoPlayerX == 0 && from.ufoPlayerY == 0) || (to.ufoPlayerX == 0 && to.ufoPlayerY == 0)) {
+            snapshot.ufoPlayerX = to.ufoPlayerX;
+            snapshot.ufoPlayerY = to.ufoPlayerY;
+        } else {
+            snapshot.ufoPlayerX = lerp(from.ufoPlayerX, to.ufoPlayerX, alpha);
+            snapshot.ufoPlayerY = lerp(from.ufoPlayerY, to.ufoPlayerY, alpha);
+        }
+        snapshot.playerStates = new PlayerState[from.playerStates.length];
+        for (int i = 0; i < from.playerStates.length; i++) {
+            PlayerState ps = from.playerStates[i].copy();
+            if (i < to.playerStates.length) {
+                ps.x = lerp(ps.x, to.playerStates[i].x, alpha);
+                ps.y = lerp(ps.y, to.playerStates[i].y, alpha);
+            }
+            snapshot.playerStates[i] = ps;
+        }
+        return snapshot;
+    }
+
+    private static float lerp(float from, float to, float alpha) {
+        return from + (to - from) * alpha;
+    }
+}
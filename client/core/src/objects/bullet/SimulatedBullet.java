@@ -0,0 +1,32 @@
+package objects.bullet;
+
+import helper.BulletData;
+
+public class SimulatedBullet {
+    private final BulletData bulletData;
+    private final float spawnX;
+    private final int spawnTick;
+
+    /**
+     * Bullet that is moved on the client, because the server only sends its spawn and removal.
+     * @param bulletData bullet as it was on the spawn tick
+     * @param spawnTick server tick of the spawn
+     */
+    public SimulatedBullet(BulletData bulletData, int spawnTick) {
+        this.bulletData = bulletData;
+        this.spawnX = bulletData.x;
+        this.spawnTick = spawnTick;
+    }
+
+    /**
+     * Move the bullet to where it is on the given (fractional) server tick.
+     * Bullets fly in a straight line, so the position can be calculated from the spawn position.
+     */
+    public void update(float serverTick) {
+        bulletData.x = spawnX + bulletData.speedBullet * Math.max(0, serverTick - spawnTick);
+    }
+
+    public BulletData getBulletData() {
+        return bulletData;
+    }
+}
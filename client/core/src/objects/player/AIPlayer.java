@@ -3,12 +3,9 @@ package objects.player;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.badlogic.gdx.math.Vector2;
 import com.badlogic.gdx.physics.box2d.Body;
-import ee.taltech.americandream.AmericanDream;
 import helper.BulletData;
 import helper.Direction;
 import helper.PlayerState;
-import helper.packet.BulletMessage;
-import helper.packet.PlayerPositionMessage;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -32,6 +29,7 @@ public class AIPlayer extends Player {
     private boolean jumpingState = false;
     private Optional<List<BulletData>> bullets;
     private Player realPlayer;
+    private int entityId = -1;
 
     private int ammoReserve = 10;
     private float shotExtraBulletsDelta = 10f;
@@ -97,7 +95,7 @@ public class AIPlayer extends Player {
         // analyze bullets
         if (bullets.isPresent() && !bullets.get().isEmpty()) {
             enemyBullets = bullets.get().stream()
-                    .filter(x -> !(x.name.equals("AI")))
+                    .filter(x -> x.ownerId != entityId)
                     .collect(Collectors.toList());
             dangeriousBullets = enemyBullets.stream()
                     .filter(bul ->
@@ -134,7 +132,7 @@ public class AIPlayer extends Player {
 
     /**
      * Update player data according to input, collisions (platforms) and respawning.
-     * Construct and send new playerPositionMessage.
+     * Construct and send new PlayerCommand.
      * @param delta delta time
      * @param center point of the map/world
      * @param playerState optional of AI player's state
@@ -147,9 +145,11 @@ public class AIPlayer extends Player {
         this.realPlayer = player;  // could be set in constructor
         if (playerState.isPresent()) {
             PlayerState ps = playerState.get();
+            entityId = ps.entityId;
             damage = ps.getDamage();
             ammoCount = ps.getAmmoCount();
-            if (ps.getApplyForce() != 0) bulletHitForce = ps.getApplyForce();
+            receiveHit(ps);
+            acknowledgeInput(ps);
             // update server-sided lives here in the future
         }
         thisX = body.getPosition().x * PPM;
@@ -164,19 +164,7 @@ public class AIPlayer extends Player {
         super.handleOutOfBounds(delta, center);  // respawning and decrementing lives
         direction = velX > 0 ? Direction.RIGHT : Direction.LEFT;
 
-        // construct player position message to be sent to the server
-        PlayerPositionMessage positionMessage = new PlayerPositionMessage();
-        positionMessage.x = thisX;
-        positionMessage.y = thisY;
-        positionMessage.direction = Direction.LEFT;
-        positionMessage.livesCount = livesCount;
-        positionMessage.name = "AI";
-        positionMessage.velX = velX;
-        positionMessage.velY = velY;
-        positionMessage.isShooting = isShooting;
-
-        // send player position message to the server
-        AmericanDream.client.sendUDP(positionMessage);
+        sendCommand(true);
     }
 
 
@@ -224,23 +212,18 @@ public class AIPlayer extends Player {
 
     /**
      * Extension of Act (handleInput) method.
-     * Create and send new BulletMessage if the player is shooting.
+     * Set the shooting direction that is sent to the server with the AI's command.
      */
     @Override
     public void shootingInput() {
         isShooting = 0;
-        BulletMessage bulletMessage = new BulletMessage();
         if (shootingState.equals("right")) {
-            bulletMessage.direction = Direction.RIGHT;
             isShooting = 1;
         }
         if (shootingState.equals("left")) {
-            bulletMessage.direction = Direction.LEFT;
             isShooting = -1;
         }
         shootingState = "";
-        bulletMessage.name = "AI";
-        AmericanDream.client.sendTCP(bulletMessage);
     }
 
     /**
@@ -14,11 +14,13 @@ import com.badlogic.gdx.utils.Array;
 import ee.taltech.americandream.AmericanDream;
 import helper.Audio;
 import helper.Direction;
+import helper.PlayerCommand;
 import helper.PlayerState;
 import helper.packet.AddUfoMessage;
-import helper.packet.BulletMessage;
-import helper.packet.PlayerPositionMessage;
+import helper.packet.PlayerInputMessage;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Objects;
 import java.util.Optional;
 
@@ -41,8 +43,16 @@ public class Player extends GameEntity {
     protected int isShooting;
     protected float jumpCounterResetTime = 0;
     protected float bulletHitForce = 0f;
+    // hitSequence of the latest hit whose knockback has been started
+    private int lastHitSequence = 0;
     private boolean onGround = false;
     private boolean walkSoundStarted = false;
+    private int lastSnapshotTick = -1;
+    private final Deque<PlayerCommand> unacknowledgedCommands = new ArrayDeque<>();
+    // sent commands with the predicted position after each of them, oldest first
+    private final Deque<PlayerCommand> predictedCommands = new ArrayDeque<>();
+    private int nextInputSequence = 0;
+    private int lastAcknowledgedInput = -1;
 
     /**
      * Initialize Player.
@@ -105,6 +115,13 @@ public class Player extends GameEntity {
         return ammoCount;
     }
 
+    /**
+     * Set the tick of the latest game state received from the server, acknowledged with every position message.
+     */
+    public void setLastSnapshotTick(int lastSnapshotTick) {
+        this.lastSnapshotTick = lastSnapshotTick;
+    }
+
     public Vector2 getPosition() {
         return body.getPosition().scl(PPM);
     }
@@ -118,7 +135,7 @@ public class Player extends GameEntity {
 
     /**
      * Update player data according to input, collisions (platforms) and respawning.
-     * Construct and send new playerPositionMessage.
+     * Construct and send new PlayerCommand.
      *
      * @param delta  delta time
      * @param center point of the map/world
@@ -129,7 +146,8 @@ public class Player extends GameEntity {
             PlayerState ps = playerState.get();
             damage = ps.getDamage();
             ammoCount = ps.getAmmoCount();
-            if (ps.getApplyForce() != 0) bulletHitForce = ps.getApplyForce();
+            receiveHit(ps);
+            acknowledgeInput(ps);
             // update server-sided lives here in the future
         }
         thisX = body.getPosition().x * PPM;
@@ -142,23 +160,100 @@ public class Player extends GameEntity {
         handleOutOfBounds(delta, center);  // respawning and decrementing lives
         direction = velX > 0 ? Direction.RIGHT : Direction.LEFT;
 
-        // construct player position message to be sent to the server
-        PlayerPositionMessage positionMessage = new PlayerPositionMessage();
-        positionMessage.x = thisX;
-        positionMessage.y = thisY;
-        positionMessage.direction = Direction.LEFT;
-        positionMessage.livesCount = livesCount;
-        positionMessage.name = name;
-        positionMessage.velX = velX;
-        positionMessage.velY = velY;
-        positionMessage.isShooting = isShooting;
-
-        // send player position message to the server
-        AmericanDream.client.sendUDP(positionMessage);
+        sendCommand(false);
 
         playerAnimations.update(delta, this);
     }
 
+    /**
+     * Forget the commands that the server has already applied and reconcile the predicted position.
+     * The server's position after the acknowledged command is compared with the position predicted for it.
+     * On mismatch the commands that the server has not applied yet are replayed from the server's position:
+     * each one repeats its predicted move, limited the same way the server limits it, and a respawn places
+     * the player at the respawn position again. The physics world can not be rewound, so the moves are the
+     * recorded ones instead of being simulated again.
+     */
+    protected void acknowledgeInput(PlayerState ps) {
+        // the server decides respawns, lives are only ever lowered to the server's count
+        if (ps.livesCount != null && ps.livesCount < livesCount) {
+            livesCount = ps.livesCount;
+        }
+        if (ps.lastInputSequence <= lastAcknowledgedInput) return;
+        lastAcknowledgedInput = ps.lastInputSequence;
+        while (!unacknowledgedCommands.isEmpty() && unacknowledgedCommands.peekFirst().sequence <= lastAcknowledgedInput) {
+            unacknowledgedCommands.removeFirst();
+        }
+
+        PlayerCommand acknowledged = null;
+        while (!predictedCommands.isEmpty() && predictedCommands.peekFirst().sequence <= lastAcknowledgedInput) {
+            acknowledged = predictedCommands.removeFirst();
+        }
+        if (acknowledged == null || acknowledged.sequence != lastAcknowledgedInput) return;
+        float errorX = ps.x - acknowledged.x;
+        float errorY = ps.y - acknowledged.y;
+        if (Math.abs(errorX) <= RECONCILIATION_TOLERANCE && Math.abs(errorY) <= RECONCILIATION_TOLERANCE) return;
+
+        float x = ps.x;
+        float y = ps.y;
+        float previousX = acknowledged.x;
+        float previousY = acknowledged.y;
+        Integer previousLives = acknowledged.livesCount;
+        for (PlayerCommand command : predictedCommands) {
+            float moveX = command.x - previousX;
+            float moveY = command.y - previousY;
+            previousX = command.x;
+            previousY = command.y;
+            if (!Objects.equals(command.livesCount, previousLives)) {
+                // respawning is a teleport, not a move
+                x = command.x;
+                y = command.y;
+            } else {
+                float distance = (float) Math.sqrt(moveX * moveX + moveY * moveY);
+                float scale = distance > MAX_MOVE_PER_COMMAND ? MAX_MOVE_PER_COMMAND / distance : 1;
+                x += moveX * scale;
+                y += moveY * scale;
+            }
+            previousLives = command.livesCount;
+            command.x = x;
+            command.y = y;
+        }
+        // the body has moved on from the newest prediction since it was made, that move is kept
+        body.setTransform(body.getPosition().x + (x - previousX) / PPM, body.getPosition().y + (y - previousY) / PPM, body.getAngle());
+    }
+
+    /**
+     * Construct the command of this client tick and send it to the server over UDP.
+     * The last unacknowledged commands are sent along with it, so a lost packet does not lose a shot.
+     *
+     * @param thisIsAI whether the command controls the AI player
+     */
+    protected void sendCommand(boolean thisIsAI) {
+        PlayerCommand command = new PlayerCommand();
+        command.sequence = nextInputSequence++;
+        command.x = thisX;
+        command.y = thisY;
+        command.direction = Direction.LEFT;
+        command.livesCount = livesCount;
+        command.velX = velX;
+        command.velY = velY;
+        command.isShooting = isShooting;
+        unacknowledgedCommands.addLast(command);
+        while (unacknowledgedCommands.size() > INPUT_REDUNDANCY) {
+            unacknowledgedCommands.removeFirst();
+        }
+        predictedCommands.addLast(command);
+        while (predictedCommands.size() > PREDICTION_HISTORY_SIZE) {
+            predictedCommands.removeFirst();
+        }
+
+        PlayerInputMessage inputMessage = new PlayerInputMessage();
+        inputMessage.name = getName();
+        inputMessage.thisIsAI = thisIsAI;
+        inputMessage.lastSnapshotTick = lastSnapshotTick;
+        inputMessage.commands = unacknowledgedCommands.toArray(new PlayerCommand[0]);
+        AmericanDream.client.sendUDP(inputMessage);
+    }
+
     /**
      * Render player and find the correct animation frame.
      */
@@ -249,25 +344,31 @@ public class Player extends GameEntity {
 
     /**
      * Check for shooting input.
-     * Create and send new BulletMessage if the player is shooting.
+     * Shooting direction is sent to the server with the player's command.
      */
     public void shootingInput() {
         isShooting = 0;
-        BulletMessage bulletMessage = new BulletMessage();
         if (Gdx.input.isKeyPressed(Input.Keys.RIGHT) ||
                 (Controllers.getCurrent() != null &&
                         Controllers.getCurrent().getAxis(Controllers.getCurrent().getMapping().axisRightX) > 0.5f)) {
-            bulletMessage.direction = Direction.RIGHT;
             isShooting = 1;
         }
         if (Gdx.input.isKeyPressed(Input.Keys.LEFT) ||
                 (Controllers.getCurrent() != null &&
                         Controllers.getCurrent().getAxis(Controllers.getCurrent().getMapping().axisRightX) < -0.5f)) {
-            bulletMessage.direction = Direction.LEFT;
             isShooting = -1;
         }
-        bulletMessage.name = name;
-        AmericanDream.client.sendTCP(bulletMessage);
+    }
+
+    /**
+     * Start the knockback of a hit the first time a state with its hit sequence is seen.
+     * The same state is used for several frames and the next one may carry the same hit again.
+     */
+    protected void receiveHit(PlayerState ps) {
+        if (ps.hitSequence != lastHitSequence) {
+            lastHitSequence = ps.hitSequence;
+            bulletHitForce = ps.getApplyForce();
+        }
     }
 
     /**
@@ -15,14 +15,14 @@ import static helper.Constants.REMOTE_PLAYER_INDICATORS;
 import static helper.Textures.PLAYER_INDICATOR_TEXTURE;
 
 public class RemotePlayer {
-    private final float x;
-    private final float y;
-    private final float velX;
-    private final float velY;
+    private float x;
+    private float y;
+    private float velX;
+    private float velY;
     private final PlayerAnimations playerAnimations;
-    private final int isShooting;
-    private final Integer livesCount;
-    private final Integer damage;
+    private int isShooting;
+    private Integer livesCount;
+    private Integer damage;
     private String character = "";
 
     public enum State { WALKING, IDLE, JUMPING, SHOOTING }
@@ -34,16 +34,10 @@ public class RemotePlayer {
      * @param textureAtlas object containing player sprites
      */
     public RemotePlayer(PlayerState ps, TextureAtlas textureAtlas) {
-        this.x = ps.x;
-        this.y = ps.y;
         if (ps.name != null) {
             this.name = ps.name;
         }
-        this.velX = ps.velX;
-        this.velY = ps.velY;
-        this.isShooting = ps.isShooting;
-        this.livesCount = ps.livesCount;
-        this.damage = ps.damage;
+        setState(ps);
         this.playerAnimations = new PlayerAnimations(textureAtlas);
         if (name != null) {
             this.character = name.split("_")[0];
@@ -57,6 +51,19 @@ public class RemotePlayer {
         }
     }
 
+    /**
+     * Update the remote player to an interpolated state, the animations are kept.
+     */
+    public void setState(PlayerState ps) {
+        this.x = ps.x;
+        this.y = ps.y;
+        this.velX = ps.velX;
+        this.velY = ps.velY;
+        this.isShooting = ps.isShooting;
+        this.livesCount = ps.livesCount;
+        this.damage = ps.damage;
+    }
+
     public float getX() {
         return this.x;
     }
@@ -0,0 +1,129 @@
+package helper;
+
+import helper.packet.GameStateDeltaMessage;
+import helper.packet.GameStateMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+
+import static helper.PlayerStateDelta.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The deltas are built the way the server's SnapshotDelta.encode builds them.
+ */
+class SnapshotDeltaTest {
+
+    private static GameStateMessage baseline() {
+        GameStateMessage baseline = new GameStateMessage();
+        baseline.tick = 10;
+        baseline.gameTime = 290;
+        baseline.playerStates = new PlayerState[]{player(0, 100), player(1, 400)};
+        baseline.bulletData = new ArrayList<>();
+        baseline.bulletData.add(bullet(1, 100));
+        baseline.bulletData.add(bullet(2, 200));
+        baseline.bulletData.add(bullet(3, 300));
+        return baseline;
+    }
+
+    private static PlayerState player(int entityId, float x) {
+        PlayerState ps = new PlayerState();
+        ps.id = entityId + 10;
+        ps.entityId = entityId;
+        ps.x = x;
+        ps.y = 200;
+        ps.direction = Direction.LEFT;
+        ps.livesCount = 3;
+        return ps;
+    }
+
+    private static BulletData bullet(int bulletId, float x) {
+        BulletData bullet = new BulletData();
+        bullet.bulletId = bulletId;
+        bullet.x = x;
+        bullet.y = 200;
+        bullet.speedBullet = 6;
+        return bullet;
+    }
+
+    private static GameStateDeltaMessage emptyDelta(int tick) {
+        GameStateDeltaMessage delta = new GameStateDeltaMessage();
+        delta.tick = tick;
+        delta.baselineTick = 10;
+        delta.gameTime = 290;
+        delta.playerDeltas = new PlayerStateDelta[0];
+        delta.newBullets = new ArrayList<>();
+        delta.changedBullets = new ArrayList<>();
+        delta.removedBullets = new int[0];
+        return delta;
+    }
+
+    @Test
+    void appliesChangedPlayerFieldsOnly() {
+        GameStateDeltaMessage delta = emptyDelta(12);
+        PlayerStateDelta playerDelta = new PlayerStateDelta();
+        playerDelta.index = 1;
+        playerDelta.changedFields = X | LIVES_COUNT | DIRECTION | HIT_SEQUENCE;
+        playerDelta.x = 410;
+        // not marked as changed
+        playerDelta.y = 999;
+        playerDelta.livesCount = -1;
+        playerDelta.direction = null;
+        playerDelta.hitSequence = 2;
+        delta.playerDeltas = new PlayerStateDelta[]{playerDelta};
+
+        GameStateMessage snapshot = SnapshotDelta.apply(baseline(), delta);
+
+        assertEquals(12, snapshot.tick);
+        assertEquals(100, snapshot.playerStates[0].x);
+        PlayerState ps = snapshot.playerStates[1];
+        assertEquals(410, ps.x);
+        assertEquals(200, ps.y);
+        assertEquals(-1, (int) ps.livesCount);
+        assertNull(ps.direction);
+        assertEquals(2, ps.hitSequence);
+    }
+
+    @Test
+    void producesTheCurrentBulletsFromTheBaseline() {
+        GameStateDeltaMessage delta = emptyDelta(11);
+        // 1 is unchanged, 2 has moved, 3 is gone and 4 is new
+        BulletDelta moved = new BulletDelta();
+        moved.bulletId = 2;
+        moved.x = 206;
+        delta.changedBullets.add(moved);
+        delta.removedBullets = new int[]{3};
+        delta.newBullets.add(bullet(4, 50));
+
+        GameStateMessage snapshot = SnapshotDelta.apply(baseline(), delta);
+
+        assertEquals(3, snapshot.bulletData.size());
+        assertEquals(1, snapshot.bulletData.get(0).bulletId);
+        assertEquals(100, snapshot.bulletData.get(0).x);
+        assertEquals(2, snapshot.bulletData.get(1).bulletId);
+        assertEquals(206, snapshot.bulletData.get(1).x);
+        assertEquals(4, snapshot.bulletData.get(2).bulletId);
+    }
+
+    @Test
+    void leavesTheBaselineUnchanged() {
+        GameStateMessage baseline = baseline();
+        GameStateDeltaMessage delta = emptyDelta(11);
+        PlayerStateDelta playerDelta = new PlayerStateDelta();
+        playerDelta.index = 0;
+        playerDelta.changedFields = X;
+        playerDelta.x = 150;
+        delta.playerDeltas = new PlayerStateDelta[]{playerDelta};
+        BulletDelta moved = new BulletDelta();
+        moved.bulletId = 1;
+        moved.x = 106;
+        delta.changedBullets = Collections.singletonList(moved);
+
+        SnapshotDelta.apply(baseline, delta);
+
+        assertEquals(100, baseline.playerStates[0].x);
+        assertEquals(100, baseline.bulletData.get(0).x);
+        assertEquals(3, baseline.bulletData.size());
+    }
+}
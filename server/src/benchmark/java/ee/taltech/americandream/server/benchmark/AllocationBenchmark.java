@@ -0,0 +1,122 @@
+package ee.taltech.americandream.server.benchmark;
+
+import com.esotericsoftware.kryonet.Connection;
+import ee.taltech.americandream.server.Game;
+import ee.taltech.americandream.server.Lobby;
+import helper.Direction;
+import helper.PlayerCommand;
+import helper.packet.AddUfoMessage;
+import helper.packet.PlayerInputMessage;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Measure how many bytes a single game tick allocates, so that the tick stays allocation free.
+ * Only the ticks themselves are measured, input messages are created and queued in between.
+ * Game states are serialized as usual, the fake connection drops the bytes.
+ * Exits with status 1 if a scenario allocates more than its budget.
+ * Run with: gradle benchmark -PbenchmarkClass=AllocationBenchmark
+ */
+public class AllocationBenchmark {
+    // a game lasts GAME_DURATION * TICK_RATE ticks, both together must fit into one game
+    private static final int WARMUP_TICKS = 10_000;
+    private static final int TICKS = 5_000;
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    public static void main(String[] args) {
+        System.out.printf("%-10s %8s %12s %12s %10s%n", "scenario", "bullets", "bytes/tick", "max/tick", "budget");
+        boolean passed = true;
+        // players moving without shooting, nothing but the tick itself
+        passed &= run("idle", 0, false, 0, 0);
+        // players shooting each other and the UFO, bullet events reuse their buffers too
+        passed &= run("combat", 20, true, 0, 0);
+        // 1000 bullets flying and being replaced
+        passed &= run("bullets", 0, false, 1_000, 0);
+        System.exit(passed ? 0 : 1);
+    }
+
+    /**
+     * @param shootInterval ticks between shots of each player, 0 for no shooting
+     * @param ufo add the UFO to the game
+     * @param bullets stress mode bullets kept flying
+     * @param budget allowed average allocation per tick in bytes
+     * @return true if the average allocation is within the budget
+     */
+    private static boolean run(String name, int shootInterval, boolean ufo, int bullets, long budget) {
+        FakeConnection connection = new FakeConnection();
+        Game game = new Game(new Connection[]{connection, connection}, new Lobby("AILobby", 2));
+        game.setProjectileStress(bullets, bullets);
+        Input player = new Input("Benchmark", false, shootInterval);
+        Input ai = new Input("AI", true, shootInterval);
+        if (ufo) {
+            // the UFO is placed between players that have sent their positions
+            player.send(connection, game.getTick());
+            ai.send(connection, game.getTick());
+            game.tick();
+            connection.receive(new AddUfoMessage());
+        }
+
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            player.send(connection, game.getTick());
+            ai.send(connection, game.getTick());
+            game.tick();
+        }
+        long total = 0;
+        long max = 0;
+        long flying = 0;
+        for (int i = 0; i < TICKS; i++) {
+            player.send(connection, game.getTick());
+            ai.send(connection, game.getTick());
+            long before = THREADS.getCurrentThreadAllocatedBytes();
+            if (!game.tick()) throw new IllegalStateException("game ended during the benchmark");
+            long allocated = THREADS.getCurrentThreadAllocatedBytes() - before;
+            total += allocated;
+            max = Math.max(max, allocated);
+            flying += game.getProjectiles().getActiveCount();
+        }
+        game.end();
+        connection.disconnect();
+
+        long average = total / TICKS;
+        boolean passed = average <= budget;
+        System.out.printf("%-10s %8d %12d %12d %10d%s%n",
+                name, flying / TICKS, average, max, budget, passed ? "" : "  FAILED");
+        return passed;
+    }
+
+    /**
+     * Input of a client that walks back and forth, acknowledges every snapshot and shoots at an interval.
+     */
+    private static class Input {
+        private final String name;
+        private final boolean thisIsAI;
+        private final int shootInterval;
+        private int sequence = 0;
+
+        Input(String name, boolean thisIsAI, int shootInterval) {
+            this.name = name;
+            this.thisIsAI = thisIsAI;
+            this.shootInterval = shootInterval;
+        }
+
+        void send(FakeConnection connection, int tick) {
+            PlayerCommand command = new PlayerCommand();
+            command.sequence = sequence;
+            command.x = (thisIsAI ? 400 : 100) + sequence % 50;
+            command.y = 200;
+            command.direction = Direction.RIGHT;
+            command.livesCount = 3;
+            if (shootInterval > 0 && sequence % shootInterval == 0) {
+                command.isShooting = thisIsAI ? -1 : 1;
+            }
+            PlayerInputMessage message = new PlayerInputMessage();
+            message.name = name;
+            message.thisIsAI = thisIsAI;
+            message.lastSnapshotTick = tick - 1;
+            message.commands = new PlayerCommand[]{command};
+            connection.receive(message);
+            sequence++;
+        }
+    }
+}
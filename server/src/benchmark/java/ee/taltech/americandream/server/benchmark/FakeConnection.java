@@ -0,0 +1,41 @@
+package ee.taltech.americandream.server.benchmark;
+
+import com.esotericsoftware.kryonet.Connection;
+import ee.taltech.americandream.server.MessageRouter;
+
+/**
+ * Connection that is never opened, outgoing messages are dropped.
+ */
+class FakeConnection extends Connection {
+
+    FakeConnection() {
+        MessageRouter.getInstance().connected(this);
+    }
+
+    void receive(Object message) {
+        MessageRouter.getInstance().received(this, message);
+    }
+
+    void disconnect() {
+        MessageRouter.getInstance().disconnected(this);
+    }
+
+    @Override
+    public int sendTCP(Object object) {
+        return 0;
+    }
+
+    @Override
+    public int sendUDP(Object object) {
+        return 0;
+    }
+
+    @Override
+    public void updateReturnTripTime() {
+    }
+
+    @Override
+    public int getReturnTripTime() {
+        return 0;
+    }
+}
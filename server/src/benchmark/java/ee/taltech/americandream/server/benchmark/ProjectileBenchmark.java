@@ -0,0 +1,50 @@
+package ee.taltech.americandream.server.benchmark;
+
+import com.esotericsoftware.kryonet.Connection;
+import ee.taltech.americandream.server.Game;
+import ee.taltech.americandream.server.Lobby;
+
+import static helper.Constants.TICK_RATE;
+
+/**
+ * Measure how the tick time of a game grows with the amount of flying bullets.
+ * The game runs in stress mode on a fake connection, ticks are run back to back on the calling thread.
+ * Run with: gradle benchmark -PbenchmarkClass=ProjectileBenchmark
+ */
+public class ProjectileBenchmark {
+    private static final int[] BULLET_COUNTS = {0, 100, 1_000, 10_000};
+    private static final int WARMUP_TICKS = 2_000;
+    private static final int TICKS = 5_000;
+
+    public static void main(String[] args) {
+        System.out.printf("%-8s %10s %12s %12s%n", "bullets", "flying", "us/tick", "tick budget");
+        for (int bullets : BULLET_COUNTS) {
+            run(bullets);
+        }
+    }
+
+    private static void run(int bullets) {
+        FakeConnection connection = new FakeConnection();
+        Game game = new Game(new Connection[]{connection, connection}, new Lobby("AILobby", 2));
+        // fill up to the amount in the first tick and replace removed bullets in the following ticks
+        game.setProjectileStress(bullets, bullets);
+        for (int i = 0; i < WARMUP_TICKS; i++) {
+            game.tick();
+        }
+
+        long flying = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < TICKS; i++) {
+            game.tick();
+            flying += game.getProjectiles().getActiveCount();
+        }
+        long elapsed = System.nanoTime() - start;
+        game.end();
+        connection.disconnect();
+
+        double tickMicros = elapsed / 1000.0 / TICKS;
+        double budgetMicros = 1_000_000.0 / TICK_RATE;
+        System.out.printf("%-8d %10d %12.1f %11.1f%%%n",
+                bullets, flying / TICKS, tickMicros, tickMicros / budgetMicros * 100);
+    }
+}
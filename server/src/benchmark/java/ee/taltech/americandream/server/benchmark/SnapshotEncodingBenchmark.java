@@ -0,0 +1,204 @@
+package ee.taltech.americandream.server.benchmark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryonet.Connection;
+import ee.taltech.americandream.server.Game;
+import ee.taltech.americandream.server.GameServer;
+import ee.taltech.americandream.server.Lobby;
+import ee.taltech.americandream.server.SnapshotBroadcast;
+import helper.BulletData;
+import helper.Direction;
+import helper.PlayerCommand;
+import helper.PlayerState;
+import helper.packet.GameStateMessage;
+import helper.packet.PlayerInputMessage;
+
+import java.util.ArrayList;
+import java.util.Random;
+
+/**
+ * Compare the default Kryo FieldSerializer encoding of a GameStateMessage with the hand-written serializers,
+ * then measure how many of the messages sent by a real game share their serialization with another player.
+ * Run with: gradle benchmark -PbenchmarkClass=SnapshotEncodingBenchmark
+ */
+public class SnapshotEncodingBenchmark {
+    private static final int PLAYERS = 4;
+    private static final int[] BULLET_COUNTS = {0, 20, 60};
+    private static final int WARMUP_ITERATIONS = 20_000;
+    private static final int ITERATIONS = 200_000;
+    // results are written here so the JIT can't remove the benchmarked work
+    private static volatile long blackhole;
+    private static final int SHARING_WARMUP_TICKS = 600;
+    private static final int SHARING_TICKS = 6_000;
+
+    public static void main(String[] args) {
+        Kryo fieldSerializerKryo = new Kryo();
+        registerDefaultSerializers(fieldSerializerKryo);
+        Kryo compactKryo = new Kryo();
+        GameServer.registerClasses(compactKryo);
+
+        System.out.printf("%-8s %-16s %8s %12s %12s%n", "bullets", "encoding", "bytes", "encode ns", "decode ns");
+        for (int bullets : BULLET_COUNTS) {
+            GameStateMessage message = createMessage(bullets);
+            run("field", fieldSerializerKryo, message);
+            run("compact", compactKryo, message);
+        }
+
+        System.out.println();
+        System.out.printf("%-12s %10s %14s %16s %8s%n", "sharing", "recipients", "messages/tick", "serialized/tick", "shared");
+        // one recipient, the AI shares the player's connection and is not sent a snapshot
+        runSharing("ai game", true, new int[]{2, 2}, 0);
+        // ack delays in ticks, a snapshot is acknowledged one round trip after it was sent
+        runSharing("lan", false, new int[]{1, 1, 1, 1}, 0);
+        runSharing("same rtt", false, new int[]{4, 4, 4, 4}, 0);
+        runSharing("mixed rtt", false, new int[]{1, 2, 4, 5}, 0);
+        runSharing("jitter", false, new int[]{4, 4, 4, 4}, 1);
+        System.exit(0);
+    }
+
+    /**
+     * Run a game with fake clients that acknowledge snapshots after a delay and count the serializations.
+     * @param ackDelays ticks between a snapshot being sent and the client's acknowledgement reaching the server
+     * @param jitter random extra delay of each acknowledgement, 0..jitter ticks
+     */
+    private static void runSharing(String name, boolean aiGame, int[] ackDelays, int jitter) {
+        Random random = new Random(1);
+        FakeConnection[] connections = new FakeConnection[ackDelays.length];
+        for (int i = 0; i < connections.length; i++) {
+            connections[i] = aiGame && i > 0 ? connections[0] : new FakeConnection();
+        }
+        Game game = new Game(connections.clone(), new Lobby(aiGame ? "AILobby" : "Benchmark", connections.length));
+        SnapshotBroadcast broadcast = game.getBroadcast();
+        long messages = 0;
+        long serialized = 0;
+        for (int tick = 0; tick < SHARING_WARMUP_TICKS + SHARING_TICKS; tick++) {
+            if (tick == SHARING_WARMUP_TICKS) {
+                messages = broadcast.getMessageCount();
+                serialized = broadcast.getSerializedCount();
+            }
+            for (int i = 0; i < connections.length; i++) {
+                int ackedTick = game.getTick() - 1 - ackDelays[i] - (jitter > 0 ? random.nextInt(jitter + 1) : 0);
+                connections[i].receive(createInput(i, aiGame && i > 0, game.getTick(), ackedTick));
+            }
+            if (!game.tick()) throw new IllegalStateException("game ended during the benchmark");
+        }
+        messages = broadcast.getMessageCount() - messages;
+        serialized = broadcast.getSerializedCount() - serialized;
+        game.end();
+        for (FakeConnection connection : connections) {
+            connection.disconnect();
+        }
+
+        int recipients = aiGame ? 1 : connections.length;
+        System.out.printf("%-12s %10d %14.2f %16.2f %7.0f%%%n", name, recipients,
+                (double) messages / SHARING_TICKS, (double) serialized / SHARING_TICKS,
+                100 * (1 - (double) serialized / messages));
+    }
+
+    private static PlayerInputMessage createInput(int index, boolean thisIsAI, int sequence, int ackedTick) {
+        PlayerCommand command = new PlayerCommand();
+        command.sequence = sequence;
+        command.x = 100 + index * 150 + sequence % 50;
+        command.y = 200;
+        command.direction = Direction.RIGHT;
+        command.livesCount = 3;
+        // shooting every 20 ticks, bullets are sent as events and keep the snapshots shareable
+        command.isShooting = sequence % 20 == 0 ? (index % 2 == 0 ? 1 : -1) : 0;
+        PlayerInputMessage message = new PlayerInputMessage();
+        message.name = thisIsAI ? "AI" : "Benchmark" + index;
+        message.thisIsAI = thisIsAI;
+        message.lastSnapshotTick = ackedTick;
+        message.commands = new PlayerCommand[]{command};
+        return message;
+    }
+
+    private static void run(String name, Kryo kryo, GameStateMessage message) {
+        Output output = new Output(64 * 1024);
+        kryo.writeClassAndObject(output, message);
+        byte[] bytes = output.toBytes();
+        Input input = new Input(bytes);
+
+        long sink = 0;
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            sink += encode(kryo, output, message) + decode(kryo, input, bytes);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += encode(kryo, output, message);
+        }
+        long encodeTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink += decode(kryo, input, bytes);
+        }
+        long decodeTime = System.nanoTime() - start;
+
+        blackhole = sink;
+
+        System.out.printf("%-8d %-16s %8d %12.0f %12.0f%n", message.bulletData.size(), name, bytes.length,
+                (double) encodeTime / ITERATIONS, (double) decodeTime / ITERATIONS);
+    }
+
+    private static int encode(Kryo kryo, Output output, GameStateMessage message) {
+        output.clear();
+        kryo.writeClassAndObject(output, message);
+        return output.position();
+    }
+
+    private static int decode(Kryo kryo, Input input, byte[] bytes) {
+        input.setBuffer(bytes);
+        return ((GameStateMessage) kryo.readClassAndObject(input)).tick;
+    }
+
+    /**
+     * Typical 4-player game state in the middle of a match.
+     */
+    private static GameStateMessage createMessage(int bullets) {
+        GameStateMessage message = new GameStateMessage();
+        message.tick = 5400;
+        message.gameTime = 210;
+        message.ufoPlayerX = 1043.27f;
+        message.ufoPlayerY = 911.84f;
+        message.playerStates = new PlayerState[PLAYERS];
+        for (int i = 0; i < PLAYERS; i++) {
+            PlayerState ps = new PlayerState();
+            ps.id = i + 1;
+            ps.entityId = i;
+            ps.x = 900 + i * 97.31f;
+            ps.y = 928 + i * 12.5f;
+            ps.direction = Direction.LEFT;
+            ps.livesCount = 2;
+            ps.velX = i % 2 == 0 ? 1 : -1;
+            ps.isShooting = i % 3 - 1;
+            ps.damage = 14 + i;
+            ps.ammoCount = 7;
+            message.playerStates[i] = ps;
+        }
+        message.bulletData = new ArrayList<>();
+        for (int i = 0; i < bullets; i++) {
+            BulletData bullet = new BulletData();
+            bullet.ownerId = i % PLAYERS;
+            bullet.bulletId = 300 + i;
+            bullet.x = 700 + i * 13.7f;
+            bullet.y = 930 + i % PLAYERS * 12.5f;
+            bullet.speedBullet = i % 2 == 0 ? 6 : -6;
+            bullet.shotWithGun = i % 5 == 0;
+            message.bulletData.add(bullet);
+        }
+        return message;
+    }
+
+    /**
+     * Registration before the hand-written serializers were added, uses Kryo's FieldSerializer for everything.
+     */
+    private static void registerDefaultSerializers(Kryo kryo) {
+        kryo.register(GameStateMessage.class);
+        kryo.register(PlayerState[].class);
+        kryo.register(PlayerState.class);
+        kryo.register(Direction.class);
+        kryo.register(BulletData.class);
+        kryo.register(ArrayList.class);
+    }
+}
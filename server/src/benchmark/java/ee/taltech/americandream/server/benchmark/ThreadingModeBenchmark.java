@@ -0,0 +1,178 @@
+package ee.taltech.americandream.server.benchmark;
+
+import com.esotericsoftware.kryonet.Connection;
+import ee.taltech.americandream.server.Game;
+import ee.taltech.americandream.server.Lobby;
+import ee.taltech.americandream.server.MatchScheduler;
+import ee.taltech.americandream.server.ThreadingMode;
+import ee.taltech.americandream.server.VirtualThreads;
+import helper.Direction;
+import helper.PlayerCommand;
+import helper.packet.PlayerInputMessage;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+
+import static helper.Constants.TICK_RATE;
+
+/**
+ * Compare the threading modes with many concurrent AI games.
+ * Every game gets a fake connection that drops outgoing messages, input is passed to the MessageRouter
+ * at the tick rate like KryoNet's update thread would.
+ * The modes are run one after another for each game count, so they can be compared side by side.
+ * The virtual mode needs JDK 21 or newer, on an older JDK its rows say so and the benchmark exits with status 1.
+ * Run with: gradle benchmark -PbenchmarkClass=ThreadingModeBenchmark [-PbenchmarkArgs="mode..."]
+ */
+public class ThreadingModeBenchmark {
+    private static final int[] GAME_COUNTS = {10, 100, 1000};
+    private static final int WARMUP_SECONDS = 2;
+    private static final int MEASURE_SECONDS = 5;
+
+    public static void main(String[] args) {
+        List<ThreadingMode> modes = new ArrayList<>();
+        for (String arg : args) {
+            modes.add(ThreadingMode.valueOf(arg.toUpperCase()));
+        }
+        if (modes.isEmpty()) {
+            modes.addAll(List.of(ThreadingMode.values()));
+        }
+
+        System.out.printf("%-9s %6s %10s %10s %12s %10s %10s%n",
+                "mode", "games", "tick rate", "cpu ms/s", "peak threads", "overruns", "dropped");
+        boolean complete = true;
+        for (int games : GAME_COUNTS) {
+            for (ThreadingMode mode : modes) {
+                if (mode == ThreadingMode.VIRTUAL && !VirtualThreads.isSupported()) {
+                    System.out.printf("%-9s %6d %s%n", mode, games, VirtualThreads.UNSUPPORTED_MESSAGE);
+                    complete = false;
+                    continue;
+                }
+                run(mode, games);
+            }
+        }
+        System.exit(complete ? 0 : 1);
+    }
+
+    private static void run(ThreadingMode mode, int gameCount) {
+        MatchScheduler.setThreadingMode(mode);
+        List<FakeConnection> connections = new ArrayList<>();
+        List<Game> games = new ArrayList<>();
+        for (int i = 0; i < gameCount; i++) {
+            FakeConnection connection = new FakeConnection();
+            Game game = new Game(new Connection[]{connection, connection}, new Lobby("AILobby", 2));
+            connections.add(connection);
+            games.add(game);
+            MatchScheduler.start(game);
+        }
+
+        Input input = new Input(connections);
+        Thread inputThread = new Thread(input, "benchmark-input");
+        inputThread.start();
+        sleep(WARMUP_SECONDS * 1000L);
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.OperatingSystemMXBean os =
+                (com.sun.management.OperatingSystemMXBean) ManagementFactory.getOperatingSystemMXBean();
+        threads.resetPeakThreadCount();
+        long startTicks = totalTicks(games);
+        long startCpu = os.getProcessCpuTime();
+        long start = System.nanoTime();
+        sleep(MEASURE_SECONDS * 1000L);
+        long elapsed = System.nanoTime() - start;
+        long cpu = os.getProcessCpuTime() - startCpu;
+        long ticks = totalTicks(games) - startTicks;
+        int peakThreads = threads.getPeakThreadCount();
+        long overruns = 0;
+        long dropped = 0;
+        for (Game game : games) {
+            overruns += game.getOverrunCount();
+            dropped += game.getDroppedTickCount();
+        }
+
+        input.running = false;
+        join(inputThread);
+        for (Game game : games) {
+            game.end();
+        }
+        for (FakeConnection connection : connections) {
+            connection.disconnect();
+        }
+        // let the loops notice that the games have ended
+        sleep(500);
+
+        double seconds = elapsed / 1e9;
+        double tickRate = ticks / (gameCount * seconds * TICK_RATE);
+        System.out.printf("%-9s %6d %9.1f%% %10.0f %12d %10d %10d%n",
+                mode, gameCount, tickRate * 100, cpu / 1e6 / seconds, peakThreads, overruns, dropped);
+    }
+
+    private static long totalTicks(List<Game> games) {
+        long ticks = 0;
+        for (Game game : games) {
+            ticks += game.getTick();
+        }
+        return ticks;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Sends a player and an AI input message to every connection once per tick.
+     */
+    private static class Input implements Runnable {
+        private final List<FakeConnection> connections;
+        private volatile boolean running = true;
+
+        Input(List<FakeConnection> connections) {
+            this.connections = connections;
+        }
+
+        @Override
+        public void run() {
+            long tickNanos = 1_000_000_000L / TICK_RATE;
+            long deadline = System.nanoTime();
+            int sequence = 0;
+            while (running) {
+                for (FakeConnection connection : connections) {
+                    connection.receive(createInput(sequence, false));
+                    connection.receive(createInput(sequence, true));
+                }
+                sequence++;
+                deadline += tickNanos;
+                LockSupport.parkNanos(deadline - System.nanoTime());
+            }
+        }
+
+        private static PlayerInputMessage createInput(int sequence, boolean thisIsAI) {
+            PlayerCommand command = new PlayerCommand();
+            command.sequence = sequence;
+            command.x = 100 + sequence % 50;
+            command.y = 200;
+            command.direction = Direction.RIGHT;
+            command.livesCount = 3;
+            command.isShooting = sequence % 30 == 0 ? 1 : 0;
+            PlayerInputMessage message = new PlayerInputMessage();
+            message.name = thisIsAI ? "AI" : "Benchmark";
+            message.thisIsAI = thisIsAI;
+            message.commands = new PlayerCommand[]{command};
+            return message;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package ee.taltech.americandream.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.KryoSerialization;
+
+import java.nio.ByteBuffer;
+
+/**
+ * KryoSerialization that writes SerializedMessages without serializing them again.
+ * Lets a game serialize its snapshot once and send the same bytes to every player.
+ */
+public class BroadcastSerialization extends KryoSerialization {
+
+    @Override
+    public synchronized void write(Connection connection, ByteBuffer buffer, Object object) {
+        if (object instanceof SerializedMessage serializedMessage) {
+            buffer.put(serializedMessage.getBytes(), 0, serializedMessage.getLength());
+            return;
+        }
+        super.write(connection, buffer, object);
+    }
+}
@@ -3,30 +3,58 @@ package ee.taltech.americandream.server;
 import com.esotericsoftware.kryonet.Connection;
 import helper.BulletData;
 import helper.PlayerState;
+import helper.packet.AddUfoMessage;
+import helper.packet.GameLeaveMessage;
 import helper.packet.GameStateMessage;
 import helper.packet.GunBoxMessage;
 import helper.packet.GunPickupMessage;
+import helper.packet.PlayerInputMessage;
+import helper.packet.PlayerNamesMessage;
+import helper.packet.ProjectileEventMessage;
 
-import java.awt.*;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
-import java.util.Objects;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import static helper.Constants.*;
 
-public class Game extends Thread {
+public class Game implements Runnable, Session {
 
     private boolean AIGame;
     private final Lobby lobby;
     private Player[] alivePlayers;
+    // indexed by player entityId
     private final Player[] allPlayers;
     private ee.taltech.americandream.server.UFO UFO;
     private float gameTime;
-    private boolean running = true;
+    // ended by lobbies and network threads
+    private volatile boolean running = true;
     private boolean allJoinedMultiplayer = false;
     private long lastGunBoxSpawnTime = 0;
     private int gunBoxId = 0;
+    private int tick = 0;
+    // how the loop running the game kept up, read through getOverrunCount and getDroppedTickCount
+    private long overrunCount = 0;
+    private long droppedTickCount = 0;
+    private boolean playerNamesChanged = false;
+    // messages from network threads, handled by the game thread at the start of each tick
+    private final Queue<InboundMessage> inbox = new ConcurrentLinkedQueue<>();
+    private final ProjectileStore projectiles = new ProjectileStore();
+    // x coordinate of each player by entityId, used for removing bullets out of bounds
+    private final float[] playerXs;
+    // stress mode fires extra bullets from random players every tick
+    private int stressBulletsPerTick = STRESS_BULLETS_PER_TICK;
+    private int stressMaxBullets = STRESS_MAX_BULLETS;
+    private final Random stressRandom = new Random();
+    private final HitboxHistory hitboxHistory;
+    private final HitGrid hitGrid;
+    private final int[] hitCandidates;
+    // platforms of the map, stop bullets and give gunboxes a place to land
+    private final MapCollision mapCollision;
+    // game states are reused, a steady tick does not allocate
+    private final SnapshotPool snapshots;
+    private final SnapshotBroadcast broadcast = new SnapshotBroadcast();
 
     /**
      * Create a new game instance containing specific clients.
@@ -43,180 +71,399 @@ public class Game extends Thread {
         // start game with connections
         // make players from connections
         for (int i = 0; i < connections.length; i++) {
-            alivePlayers[i] = new Player(connections[i], this, connections[i].getID(), false);
+            alivePlayers[i] = new Player(connections[i], this, connections[i].getID(), i, false);
         }
         // replace 2nd player with AIPlayer
-        if (AIGame) alivePlayers[1] = new Player(connections[1], this, connections[1].getID(), true);
+        if (AIGame) alivePlayers[1] = new Player(connections[1], this, connections[1].getID(), 1, true);
 
         allPlayers = alivePlayers.clone();
+        hitboxHistory = new HitboxHistory(allPlayers.length);
+        // players and the UFO
+        hitGrid = new HitGrid(allPlayers.length + 1);
+        hitCandidates = new int[allPlayers.length + 1];
+        playerXs = new float[allPlayers.length];
+        // AI games are always played on the AI map
+        mapCollision = MapCollision.get(AIGame ? "AiMap" : lobby.getCurrentMap());
+        snapshots = new SnapshotPool(allPlayers.length);
+
+        // route the players' messages to this game
+        for (Connection connection : connections) {
+            MessageRouter.getInstance().attach(connection, MessageRouter.Scope.MATCH, this);
+        }
     }
 
     /**
      * Update all players and bullets of the game instance. Decrement game time if both players have joined the map.
      * End the game if a player has 0 lives left or the game time runs out.
+     * Called once per tick by a MatchScheduler worker or by run().
      * Sends: GameStateMessage - contains all data about players, player lives, damage, bullets and game time.
+     * @return false once the game has ended
      */
-    public void run() {
-        while (running) {
-            try {
-                checkForDeadPlayers();
-                // update players
-                for (Player player : alivePlayers) {
-                    player.update(1000f / TICK_RATE / 1000f);
-                }
+    public boolean tick() {
+        if (!running) return false;
+        handleInbox();
+        // ping the clients once per snapshot rate evaluation, the round trip time is read by SnapshotRate
+        if (tick % (SNAPSHOT_RATE_EVALUATION_INTERVAL * TICK_RATE / 1000) == 0) {
+            for (Player player : allPlayers) {
+                player.updateReturnTripTime();
+            }
+        }
+        checkForDeadPlayers();
+        // update players
+        for (Player player : alivePlayers) {
+            player.update(1000f / TICK_RATE / 1000f);
+        }
 
-                // update UFO
-                if (UFO != null) {
-                    UFO.update(1000f / TICK_RATE / 1000f, alivePlayers, gameTime);
-                }
+        // update UFO
+        if (UFO != null) {
+            UFO.update(1000f / TICK_RATE / 1000f, alivePlayers, gameTime);
+        }
 
-                // construct game state message
-                GameStateMessage gameStateMessage = new GameStateMessage();
-
-                gameStateMessage.gameTime = Math.round(gameTime);
-                gameStateMessage.playerStates = new PlayerState[allPlayers.length];
-                gameStateMessage.bulletData = new ArrayList<>();
-                for (int i = 0; i < allPlayers.length; i++) {
-                    // add player states to the game state message (like position)
-                    gameStateMessage.playerStates[i] = allPlayers[i].getState();
-                    // add bullets to the game state message
-                    gameStateMessage.bulletData.addAll(allPlayers[i].getPlayerBullets());
-                }
+        // move bullets and remove the ones out of bounds
+        for (int i = 0; i < allPlayers.length; i++) {
+            playerXs[i] = allPlayers[i].getX();
+        }
+        if (stressBulletsPerTick > 0) {
+            spawnStressProjectiles();
+        }
+        projectiles.update(playerXs, UFO != null ? UFO.getX() : 0);
 
-                // UFO logic
-                if (UFO != null) {
-                    // add UFO bullet data
-                    gameStateMessage.bulletData.addAll(UFO.getBullets());
-                    // add UFO position
-                    gameStateMessage.ufoPlayerX = UFO.getX();
-                    gameStateMessage.ufoPlayerY = UFO.getY();
-                }
+        // construct game state message
+        GameStateMessage gameStateMessage = snapshots.get(tick++);
+        gameStateMessage.gameTime = Math.round(gameTime);
+        for (int i = 0; i < allPlayers.length; i++) {
+            // add player states to the game state message (like position)
+            allPlayers[i].writeState(gameStateMessage.playerStates[i]);
+        }
 
-                // handle bullets hitting players
-                checkForBulletHits(gameStateMessage);
+        // UFO logic
+        if (UFO != null) {
+            // add UFO position
+            gameStateMessage.ufoPlayerX = UFO.getX();
+            gameStateMessage.ufoPlayerY = UFO.getY();
+        } else {
+            gameStateMessage.ufoPlayerX = 0;
+            gameStateMessage.ufoPlayerY = 0;
+        }
 
-                // send game state message to all players, including dead players
-                for (Player player : allPlayers) {
-                    player.sendGameState(gameStateMessage);
-                }
+        // handle bullets hitting players
+        checkForBulletHits(gameStateMessage);
 
-                // Start decrementing time when both players have joined the level
-                // Fixes countdown starting too early while in title screen
-                if (allJoinedMultiplayer) {
-                    gameTime -= 1f / TICK_RATE;
-                } else if (!Arrays.stream(gameStateMessage.playerStates).map(x -> x.direction).toList().contains(null)) {
-                    allJoinedMultiplayer = true;  // true when all players start sending non-null position data
-                }
+        if (PROJECTILE_EVENTS) {
+            // clients simulate bullets from the events, no need to send them every tick
+            sendProjectileEvents(gameStateMessage.tick);
+        } else {
+            // copies, bullets keep moving in the following ticks, but sent snapshots are used as delta baselines
+            for (int slot = 0; slot < projectiles.getSlotCount(); slot++) {
+                if (!projectiles.isActive(slot)) continue;
+                BulletData bullet = snapshots.getBullet(gameStateMessage.tick, gameStateMessage.bulletData.size());
+                gameStateMessage.bulletData.add(projectiles.writeBulletData(slot, bullet));
+            }
+        }
+        projectiles.clearRemoved();
 
-                // end game when      time ends  ||  only one player has more than 0 lives
-                if (gameTime <= 0 || alivePlayers.length < 2) {
-                    Arrays.stream(allPlayers).forEach(x -> x.sendGameStateTCP(gameStateMessage)); // last message
-                    lobby.clearLobby();
-                    this.end();
-                }
-                // spawning gunbox for weapons
-                if (System.currentTimeMillis() - lastGunBoxSpawnTime > GUNBOX_SPAWN_DELAY) {
-                    // calculate the absolute sum of x-coordinates of all players
-                    lastGunBoxSpawnTime = System.currentTimeMillis();
-                    float sumX = 0;
-                    for (Player player : allPlayers) {
-                        sumX += Math.abs(player.getState().x);
-                    }
-                    // calculate the average x-coordinate
-                    float averageX = sumX / allPlayers.length;
-                    GunBoxMessage gunBoxMessage = new GunBoxMessage();
-                    gunBoxMessage.x = averageX;
-                    gunBoxMessage.y = 1500;
-                    gunBoxMessage.id = gunBoxId++;
-                    Arrays.stream(allPlayers)
-                            .filter(player -> player.getName() != null && !player.getName().contains("AI"))
-                            .forEach(player -> player.sendGunBoxTCP(gunBoxMessage));
-                }
+        // player names are only sent when they change, snapshots refer to players by entityId
+        if (playerNamesChanged) {
+            playerNamesChanged = false;
+            sendPlayerNames();
+        }
+
+        // send game state message to all players, including dead players
+        broadcast.reset(gameStateMessage);
+        for (Player player : allPlayers) {
+            // AI player shares the connection with the real player, no need to send the same state twice
+            if (player.isThisIsAI()) continue;
+            player.sendGameState(broadcast);
+        }
 
-                Thread.sleep(1000 / TICK_RATE);
+        // Start decrementing time when both players have joined the level
+        // Fixes countdown starting too early while in title screen
+        if (allJoinedMultiplayer) {
+            gameTime -= 1f / TICK_RATE;
+        } else if (allPlayersJoined()) {
+            allJoinedMultiplayer = true;  // true when all players start sending non-null position data
+        }
+
+        // end game when      time ends  ||  only one player has more than 0 lives
+        if (gameTime <= 0 || alivePlayers.length < 2) {
+            for (Player player : allPlayers) {
+                player.sendGameStateTCP(gameStateMessage); // last message
+            }
+            lobby.clearLobby();
+            this.end();
+        }
+        // spawning gunbox for weapons
+        if (System.currentTimeMillis() - lastGunBoxSpawnTime > GUNBOX_SPAWN_DELAY) {
+            // calculate the absolute sum of x-coordinates of all players
+            lastGunBoxSpawnTime = System.currentTimeMillis();
+            float sumX = 0;
+            for (Player player : allPlayers) {
+                sumX += Math.abs(player.getX());
+            }
+            // calculate the average x-coordinate and drop the gunbox onto the closest platform
+            float averageX = sumX / allPlayers.length;
+            float spawnX = mapCollision.clampToSurface(averageX, GUNBOX_EDGE_MARGIN);
+            float surfaceY = mapCollision.getSurfaceY(spawnX);
+            GunBoxMessage gunBoxMessage = new GunBoxMessage();
+            gunBoxMessage.x = spawnX;
+            gunBoxMessage.y = Float.isNaN(surfaceY) ? GUNBOX_SPAWN_Y : surfaceY + GUNBOX_DROP_HEIGHT;
+            gunBoxMessage.id = gunBoxId++;
+            for (Player player : allPlayers) {
+                if (player.getName() != null && !player.getName().contains("AI")) {
+                    player.sendGunBoxTCP(gunBoxMessage);
+                }
+            }
+        }
+        return running;
+    }
 
+    /**
+     * Run the game on its own thread until it ends, used when games are not hosted by the MatchScheduler.
+     */
+    @Override
+    public void run() {
+        TickScheduler tickScheduler = new TickScheduler(TICK_RATE);
+        while (running) {
+            tick();
+            try {
+                long dropped = tickScheduler.waitForNextTick();
+                scheduled(tickScheduler.isLate(), dropped);
             } catch (InterruptedException e) {
                 running = false;
             }
         }
     }
 
+    /**
+     * Called by the loop running the game after waiting for the next tick.
+     * Dropped ticks still count down the game time, so the match lasts as long as the wall clock says.
+     * @param late the tick finished after the deadline of the next one
+     * @param droppedTicks ticks skipped because the loop was too far behind
+     */
+    public void scheduled(boolean late, long droppedTicks) {
+        if (late) overrunCount++;
+        if (droppedTicks > 0) {
+            droppedTickCount += droppedTicks;
+            if (allJoinedMultiplayer) {
+                gameTime -= (float) droppedTicks / TICK_RATE;
+            }
+        }
+    }
+
+    /**
+     * Queue a message for every player of the connection, it is handled at the start of the next tick.
+     * The AI player shares the connection with the real player.
+     * Called by network threads.
+     */
+    @Override
+    public void received(Connection connection, Object message) {
+        if (!running) return;
+        for (Player player : allPlayers) {
+            if (player.getConnection() == connection) {
+                inbox.add(new InboundMessage(player, message));
+            }
+        }
+    }
+
+    /**
+     * End the game in case of a disconnect.
+     */
+    @Override
+    public void disconnected(Connection connection) {
+        end();
+    }
+
+    /**
+     * Handle all queued messages in the order they were received.
+     */
+    private void handleInbox() {
+        InboundMessage inbound;
+        while ((inbound = inbox.poll()) != null) {
+            handleMessage(inbound.player(), inbound.message());
+        }
+    }
+
+    /**
+     * Receives: PlayerInputMessage, GameLeaveMessage, AddUfoMessage, GunPickupMessage
+     */
+    private void handleMessage(Player player, Object message) {
+        if (message instanceof PlayerInputMessage inputMessage) {
+            // the AI player shares the connection with the real player
+            if (inputMessage.thisIsAI == player.isThisIsAI()) {
+                player.handleInputMessage(inputMessage);
+            }
+        } else if (message instanceof GameLeaveMessage && player.isThisIsAI()) {
+            end();
+        } else if (message instanceof AddUfoMessage) {
+            addUFO();
+        } else if (message instanceof GunPickupMessage gunPickupMessage) {
+            // only the real player picks up gunboxes, the AI player shares its connection
+            if (!player.isThisIsAI()) {
+                if (player.getGunId() >= 0) {
+                    player.pickUpWeapon(Weapons.get(player.getGunId()));
+                }
+                sendToAllExcept(player, gunPickupMessage);
+            }
+        }
+    }
+
     /**
      * Remove players with 0 lives from alive players array. This prevents them from interfering with the
      * ongoing game.
      * allPlayers array still lets them spectate the game.
      */
     private void checkForDeadPlayers() {
-        if (Arrays.stream(alivePlayers).anyMatch(x -> Objects.equals(x.getState().livesCount, 0))) {
-            alivePlayers = Arrays.stream(alivePlayers)
-                    .filter(x -> x.getState().livesCount != 0)  // ignores null during initialization
-                    .toArray(Player[]::new);
+        int aliveCount = 0;
+        for (Player player : alivePlayers) {
+            if (!player.isDead()) aliveCount++;
+        }
+        // a new array is only needed when someone has died
+        if (aliveCount == alivePlayers.length) return;
+        Player[] stillAlive = new Player[aliveCount];
+        int i = 0;
+        for (Player player : alivePlayers) {
+            if (!player.isDead()) stillAlive[i++] = player;
         }
+        alivePlayers = stillAlive;
     }
 
     /**
-     * Generate a hitbox for each player (including UFO). Iterate through all bullets and check if any of them
-     * intersects the player's hitbox.
+     * @return true when all players have started sending their positions
+     */
+    private boolean allPlayersJoined() {
+        for (Player player : allPlayers) {
+            if (!player.hasJoined()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Add a hitbox for each player (including UFO) to the hit grid. Check the path every bullet has moved during
+     * the tick against the hitboxes in its grid cells only, the bullet hits the first hitbox on its path.
+     * Bullets that run into a platform of the map are removed.
+     * Sweeping the path instead of checking the end position keeps bullets from skipping over players at low tick rates.
+     * Player hitboxes are rewound to the tick that the shooter saw when the bullet is moving (lag compensation).
      * Handle bullet hits by disabling the bullet, calculating bullet force and applying force to the player.
      * @param gameStateMessage contains data about players' and bullets' locations
      */
     private void checkForBulletHits(GameStateMessage gameStateMessage) {
-        List<BulletData> bullets = gameStateMessage.bulletData;
         PlayerState[] playerStates = gameStateMessage.playerStates;
+        int tick = gameStateMessage.tick;
+        hitboxHistory.record(tick, playerStates);
+        // grid entities are players by entityId, followed by the UFO
+        int ufoGridEntity = playerStates.length;
 
-        // construct rectangles for players
-        Rectangle[] playerHitboxes = new Rectangle[playerStates.length];
+        hitGrid.clear();
         for (int i = 0; i < playerStates.length; i++) {
-            playerHitboxes[i] = new Rectangle((int) playerStates[i].x - PLAYER_WIDTH / 2, (int) playerStates[i].y - PLAYER_HEIGHT / 2, PLAYER_WIDTH, PLAYER_HEIGHT);
+            if (allPlayers[i].isDead()) continue;
+            // a bullet can be checked against any position of the rewind window
+            float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+            float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+            for (int historyTick = tick - MAX_REWIND_TICKS; historyTick <= tick; historyTick++) {
+                float x = hitboxHistory.getX(i, historyTick);
+                float y = hitboxHistory.getY(i, historyTick);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            hitGrid.insert(i, minX - PLAYER_WIDTH / 2f, minY - PLAYER_HEIGHT / 2f,
+                    maxX + PLAYER_WIDTH / 2f, maxY + PLAYER_HEIGHT / 2f);
         }
-
-        // if UFO exists, construct hitbox for UFO
-        Rectangle ufoHitbox = null;
         if (UFO != null) {
-            ufoHitbox = new Rectangle((int) UFO.getX(), (int) UFO.getY(), UFO_SIZE.width, UFO_SIZE.height);
-        }
-
-        // check if bullets hit players
-        for (BulletData bullet : bullets) {
-            // construct bullet hitbox
-            Rectangle bulletHitbox = new Rectangle((int) bullet.x - BULLET_HITBOX / 2, (int) bullet.y - BULLET_HITBOX / 2, BULLET_HITBOX, BULLET_HITBOX);
-            // check if bullet hit any player
-            for (int i = 0; i < playerHitboxes.length; i++) {
-                if (playerHitboxes[i].intersects(bulletHitbox)  // hitboxes hit
-                        && !bullet.isDisabled  // has already hit
-                        && !bullet.name.equals(playerStates[i].name)  // is not the player who shot the bullet
-                        && !Objects.equals(playerStates[i].livesCount, 0)  // player is not dead
-                ) {
-                    // remove bullet
-                    bullet.isDisabled = true;
-                    // find player with corresponding id
-
-                    for (Player player : alivePlayers) {
-                        if (player.getName().equals(playerStates[i].name)) {
-                            // register being hit, increment damage and calculate force
-                            // apply force to player (state)
-                            playerStates[i].applyForce = player.handleBeingHit(bullet, bullet.name, bullet.shotWithGun);  // returns force
-                        }
-                    }
+            hitGrid.insert(ufoGridEntity, UFO.getX(), UFO.getY(), UFO.getX() + UFO_SIZE.width, UFO.getY() + UFO_SIZE.height);
+        }
+
+        for (int slot = 0; slot < projectiles.getSlotCount(); slot++) {
+            if (!projectiles.isActive(slot) || projectiles.isDisabled(slot)) continue;  // has already hit
+            int ownerId = projectiles.getOwner(slot);
+            // bullet hitbox where the bullet was before this tick's move, bullets only move horizontally
+            float moveX = projectiles.getSpeed(slot);
+            float bulletMinX = projectiles.getX(slot) - moveX - BULLET_HITBOX / 2f;
+            float bulletMinY = projectiles.getY(slot) - BULLET_HITBOX / 2f;
+            float bulletMaxX = bulletMinX + BULLET_HITBOX;
+            float bulletMaxY = bulletMinY + BULLET_HITBOX;
+            // players where the shooter saw them, UFO bullets are not rewound
+            int hitboxTick = tick - (ownerId == UFO_ENTITY_ID ? 0 : allPlayers[ownerId].getRewindTicks());
+
+            // the whole path of the bullet during this tick, so it can't fly through a player between ticks
+            int candidateCount = hitGrid.query(Math.min(bulletMinX, bulletMinX + moveX), bulletMinY,
+                    Math.max(bulletMaxX, bulletMaxX + moveX), bulletMaxY, hitCandidates);
+            // the bullet hits whatever it reaches first, players behind a platform are safe
+            float platformTime = mapCollision.sweep(bulletMinX, bulletMinY, bulletMaxX, bulletMaxY, moveX);
+            int hitEntity = -1;
+            float hitTime = platformTime >= 0 ? platformTime : Float.MAX_VALUE;
+            for (int c = 0; c < candidateCount; c++) {
+                int entity = hitCandidates[c];
+                float time;
+                if (entity == ufoGridEntity) {
+                    // UFO doesn't hit itself
+                    if (ownerId == UFO_ENTITY_ID) continue;
+                    time = Hitbox.sweep(bulletMinX, bulletMinY, bulletMaxX, bulletMaxY, moveX, UFO.getX(), UFO.getY(),
+                            UFO.getX() + UFO_SIZE.width, UFO.getY() + UFO_SIZE.height);
+                } else {
+                    // is not the player who shot the bullet
+                    if (ownerId == playerStates[entity].entityId) continue;
+                    float playerMinX = hitboxHistory.getX(entity, hitboxTick) - PLAYER_WIDTH / 2f;
+                    float playerMinY = hitboxHistory.getY(entity, hitboxTick) - PLAYER_HEIGHT / 2f;
+                    time = Hitbox.sweep(bulletMinX, bulletMinY, bulletMaxX, bulletMaxY, moveX,
+                            playerMinX, playerMinY, playerMinX + PLAYER_WIDTH, playerMinY + PLAYER_HEIGHT);
                 }
+                if (time >= 0 && time < hitTime) {
+                    hitTime = time;
+                    hitEntity = entity;
+                }
+            }
+            if (hitEntity < 0) {
+                // removed right away instead of flying on until it is out of bounds
+                if (platformTime >= 0) projectiles.disable(slot);
+                continue;
             }
 
-            // UFO collision with bullets
-            if (ufoHitbox != null
-                    && ufoHitbox.intersects(bulletHitbox)
-                    && !bullet.isDisabled && bullet.id != -1
-            ) {
-                bullet.isDisabled = true;
-                UFO.bulletHit(bullet);
+            // remove bullet
+            projectiles.disable(slot);
+            if (hitEntity == ufoGridEntity) {
+                UFO.bulletHit(projectiles.getSpeed(slot));
+                continue;
             }
+            // register being hit, increment damage and calculate force
+            // the state of this tick was written before the bullets moved, the hit goes into it right away
+            Player player = allPlayers[playerStates[hitEntity].entityId];
+            playerStates[hitEntity].applyForce = player.handleBeingHit(projectiles.getSpeed(slot),
+                    projectiles.getWeapon(slot));  // returns force
+            playerStates[hitEntity].hitSequence = player.getHitSequence();
         }
     }
 
+    /**
+     * @return number of ticks run so far
+     */
+    public int getTick() {
+        return tick;
+    }
+
+    /**
+     * @return number of ticks that finished after the deadline of the next tick
+     */
+    public long getOverrunCount() {
+        return overrunCount;
+    }
+
+    /**
+     * @return number of ticks skipped because the loop running the game was too far behind
+     */
+    public long getDroppedTickCount() {
+        return droppedTickCount;
+    }
+
     /**
      * Close current instance of the game and clear the lobby.
      */
     public void end() {
         running = false;
+        for (Player player : allPlayers) {
+            MessageRouter.getInstance().detach(player.getConnection(), MessageRouter.Scope.MATCH, this);
+        }
         lobby.clearLobby();
     }
 
@@ -228,10 +475,78 @@ public class Game extends Thread {
         if (UFO != null) return;
 
         // find point between players and spawn the UFO there
-        float x = Arrays.stream(alivePlayers).reduce(0f, (acc, player) -> acc + player.getState().x, Float::sum) / alivePlayers.length;
-        float y = Arrays.stream(alivePlayers).reduce(0f, (acc, player) -> acc + player.getState().y, Float::sum) / alivePlayers.length;
+        float x = Arrays.stream(alivePlayers).reduce(0f, (acc, player) -> acc + player.getX(), Float::sum) / alivePlayers.length;
+        float y = Arrays.stream(alivePlayers).reduce(0f, (acc, player) -> acc + player.getY(), Float::sum) / alivePlayers.length;
+
+        UFO = new UFO(x, y, this);
+    }
+
+    /**
+     * Called by players when their name is received or changes, names are sent to clients on the next tick.
+     */
+    public void playerNamesChanged() {
+        playerNamesChanged = true;
+    }
+
+    /**
+     * Send the entityId -> name table to all clients.
+     * Sends: PlayerNamesMessage - names of all players, indexed by entityId
+     */
+    private void sendPlayerNames() {
+        PlayerNamesMessage playerNamesMessage = new PlayerNamesMessage();
+        playerNamesMessage.names = new String[allPlayers.length];
+        for (Player player : allPlayers) {
+            playerNamesMessage.names[player.getEntityId()] = player.getName();
+        }
+        for (Player player : allPlayers) {
+            if (player.isThisIsAI()) continue;
+            player.sendPlayerNames(playerNamesMessage);
+        }
+    }
+
+    public MapCollision getMapCollision() {
+        return mapCollision;
+    }
 
-        UFO = new UFO(x, y);
+    public ProjectileStore getProjectiles() {
+        return projectiles;
+    }
+
+    public SnapshotBroadcast getBroadcast() {
+        return broadcast;
+    }
+
+    /**
+     * Turn on stress mode, which fires extra bullets from random players in random directions every tick
+     * until the given amount of bullets is flying. Used for measuring how the tick time grows with bullets.
+     * @param bulletsPerTick extra bullets per tick, 0 turns stress mode off
+     * @param maxBullets no extra bullets are fired while this many bullets are flying
+     */
+    public void setProjectileStress(int bulletsPerTick, int maxBullets) {
+        this.stressBulletsPerTick = bulletsPerTick;
+        this.stressMaxBullets = maxBullets;
+    }
+
+    private void spawnStressProjectiles() {
+        for (int i = 0; i < stressBulletsPerTick && projectiles.getActiveCount() < stressMaxBullets; i++) {
+            Player owner = allPlayers[stressRandom.nextInt(allPlayers.length)];
+            float x = owner.getX() + (stressRandom.nextFloat() * 2 - 1) * BOUNDS;
+            float y = owner.getY() + (stressRandom.nextFloat() * 2 - 1) * BOUNDS / 2;
+            float speed = stressRandom.nextBoolean() ? owner.getBulletSpeed() : -owner.getBulletSpeed();
+            projectiles.spawn(owner.getEntityId(), x, y, speed, Weapons.DEFAULT_ID);
+        }
+    }
+
+    /**
+     * Send each player the bullets that have entered its interest area and the ones removed during this tick.
+     * Clients move the bullets themselves, because bullets fly in a straight line with a constant speed.
+     * Sends: ProjectileEventMessage - new bullets and ids of removed bullets
+     */
+    private void sendProjectileEvents(int tick) {
+        for (Player player : allPlayers) {
+            if (player.isThisIsAI()) continue;
+            player.sendProjectileEvents(tick, projectiles);
+        }
     }
     public void sendToAllExcept(Player player, GunPickupMessage gunPickupMessage) {
         for (Player player1 : allPlayers) {
@@ -240,4 +555,7 @@ public class Game extends Thread {
             }
         }
     }
+
+    private record InboundMessage(Player player, Object message) {
+    }
 }
@@ -2,12 +2,14 @@ package ee.taltech.americandream.server;
 
 import com.esotericsoftware.kryo.Kryo;
 import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
 import com.esotericsoftware.kryonet.Server;
 import helper.BulletData;
+import helper.BulletDelta;
 import helper.Direction;
 import helper.PlayerState;
+import helper.PlayerStateDelta;
 import helper.packet.*;
+import helper.serializer.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
@@ -15,7 +17,9 @@ import java.util.HashMap;
 import java.util.List;
 
 import static helper.Constants.LOBBY_UPDATE_RATE_IN_SECONDS;
+import static helper.Constants.OBJECT_BUFFER_SIZE;
 import static helper.Constants.PORTS;
+import static helper.Constants.WRITE_BUFFER_SIZE;
 
 public class GameServer extends Thread {
     private final Server server;
@@ -29,7 +33,8 @@ public class GameServer extends Thread {
      */
     public GameServer() {
         // setup server and open ports
-        this.server = new Server();
+        // game states are serialized once per game and written to every connection as they are
+        this.server = new Server(WRITE_BUFFER_SIZE, OBJECT_BUFFER_SIZE, new BroadcastSerialization());
 
         // create lobbies
         this.lobbies = new ArrayList<>();
@@ -39,7 +44,7 @@ public class GameServer extends Thread {
         lobbies.add(new Lobby("Default lobby " + (3), 4));
 
         // register used classes
-        registerClasses();
+        registerClasses(server.getKryo());
         try {
             server.start();
             server.bind(PORTS[0], PORTS[1]);
@@ -47,11 +52,11 @@ public class GameServer extends Thread {
             throw new RuntimeException(e);
         }
 
-        // add listener for new connections
-        server.addListener(new Listener() {
+        // all messages are routed to the server, lobby or match of the connection
+        MessageRouter router = MessageRouter.getInstance();
+        router.setServerSession(new Session() {
             @Override
             public void received(Connection connection, Object object) {
-                super.received(connection, object);
                 // handle join lobby message
                 if (object instanceof JoinLobbyMessage) {
                     JoinLobbyMessage joinLobbyMessage = (JoinLobbyMessage) object;
@@ -63,7 +68,7 @@ public class GameServer extends Thread {
                         connectionArray[1] = connection;
                         // create a new game and start it
                         Game game = new Game(connectionArray, new Lobby("AILobby", 2));
-                        game.start();
+                        MatchScheduler.start(game);
                     } else {
                         // find lobby by id and join
                         lobbies.forEach(l -> {
@@ -74,10 +79,25 @@ public class GameServer extends Thread {
                     }
                 }
             }
+
+            @Override
+            public void disconnected(Connection connection) {
+            }
         });
+        server.addListener(router);
     }
 
+    /**
+     * Start the server.
+     * @param args optional threading mode: pool (default), platform or virtual
+     */
     public static void main(String[] args) {
+        ThreadingMode threadingMode = args.length > 0 ? ThreadingMode.valueOf(args[0].toUpperCase()) : ThreadingMode.POOL;
+        if (threadingMode == ThreadingMode.VIRTUAL && !VirtualThreads.isSupported()) {
+            // don't silently fall back to another mode, the operator asked for virtual threads
+            throw new UnsupportedOperationException(VirtualThreads.UNSUPPORTED_MESSAGE);
+        }
+        MatchScheduler.setThreadingMode(threadingMode);
         GameServer gameServer = new GameServer();
         gameServer.start();
     }
@@ -85,17 +105,16 @@ public class GameServer extends Thread {
     /**
      * This method registers classes for serialization.
      * Classes that are sent over the network need to be registered.
+     * Registration order must match the client.
      */
-    private void registerClasses() {
+    public static void registerClasses(Kryo kryo) {
         // register classes for serialization
-        Kryo kryo = server.getKryo();
-        kryo.register(GameStateMessage.class);
-        kryo.register(PlayerPositionMessage.class);
+        kryo.register(GameStateMessage.class, new GameStateMessageSerializer());
+        kryo.register(PlayerInputMessage.class, new PlayerInputMessageSerializer());
         kryo.register(PlayerState[].class);
-        kryo.register(PlayerState.class);
+        kryo.register(PlayerState.class, new PlayerStateSerializer());
         kryo.register(Direction.class);
-        kryo.register(BulletMessage.class);
-        kryo.register(BulletData.class);
+        kryo.register(BulletData.class, new BulletDataSerializer());
         kryo.register(ArrayList.class);
         kryo.register(LobbyDataMessage.class);
         kryo.register(HashMap.class);
@@ -105,6 +124,14 @@ public class GameServer extends Thread {
         kryo.register(MapSelectionMessage.class);
         kryo.register(GunBoxMessage.class);
         kryo.register(GunPickupMessage.class);
+        kryo.register(GameStateDeltaMessage.class, new GameStateDeltaMessageSerializer());
+        kryo.register(PlayerStateDelta.class, new PlayerStateDeltaSerializer());
+        kryo.register(PlayerStateDelta[].class);
+        kryo.register(BulletDelta.class, new BulletDeltaSerializer());
+        kryo.register(int[].class);
+        kryo.register(PlayerNamesMessage.class);
+        kryo.register(String[].class);
+        kryo.register(ProjectileEventMessage.class);
     }
 
     /**
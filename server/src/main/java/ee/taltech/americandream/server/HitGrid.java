@@ -0,0 +1,95 @@
+package ee.taltech.americandream.server;
+
+import java.util.Arrays;
+
+import static helper.Constants.HIT_GRID_BUCKETS;
+import static helper.Constants.HIT_GRID_CELL_SIZE;
+
+/**
+ * Uniform grid broadphase for bullet hits. The map is divided into square cells and every cell is hashed
+ * into one of a fixed amount of buckets, so the grid works for any map size without knowing its bounds.
+ * Hitboxes are added to the buckets of the cells they cover and a bullet only has to be tested against
+ * the hitboxes in its own cells. Cells sharing a bucket only add candidates, never lose them.
+ * Arrays are reused between ticks, clearing, inserting and querying does not allocate.
+ */
+public class HitGrid {
+    // [bucket][index] -> entity
+    private final int[][] buckets = new int[HIT_GRID_BUCKETS][4];
+    private final int[] bucketSizes = new int[HIT_GRID_BUCKETS];
+    // query that last returned the entity, so an entity in several cells is returned once
+    private final int[] lastQuery;
+    private int query = 0;
+
+    /**
+     * @param entityCount entities are numbered from 0 to entityCount - 1
+     */
+    public HitGrid(int entityCount) {
+        lastQuery = new int[entityCount];
+    }
+
+    /**
+     * Remove all hitboxes, called before the hitboxes of a new tick are added.
+     */
+    public void clear() {
+        Arrays.fill(bucketSizes, 0);
+    }
+
+    /**
+     * Add an entity to every cell that its bounds cover.
+     */
+    public void insert(int entity, float minX, float minY, float maxX, float maxY) {
+        int minCellX = cell(minX);
+        int minCellY = cell(minY);
+        int maxCellX = cell(maxX);
+        int maxCellY = cell(maxY);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                int bucket = bucket(cellX, cellY);
+                int size = bucketSizes[bucket];
+                if (size > 0 && buckets[bucket][size - 1] == entity) continue;  // same bucket as the previous cell
+                if (size == buckets[bucket].length) {
+                    buckets[bucket] = Arrays.copyOf(buckets[bucket], size * 2);
+                }
+                buckets[bucket][size] = entity;
+                bucketSizes[bucket] = size + 1;
+            }
+        }
+    }
+
+    /**
+     * Find the entities that may overlap the bounds. Every entity is returned at most once.
+     * @param result filled with the candidate entities, must fit entityCount entities
+     * @return number of candidates
+     */
+    public int query(float minX, float minY, float maxX, float maxY, int[] result) {
+        query++;
+        int count = 0;
+        int minCellX = cell(minX);
+        int minCellY = cell(minY);
+        int maxCellX = cell(maxX);
+        int maxCellY = cell(maxY);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellY = minCellY; cellY <= maxCellY; cellY++) {
+                int bucket = bucket(cellX, cellY);
+                for (int i = 0; i < bucketSizes[bucket]; i++) {
+                    int entity = buckets[bucket][i];
+                    if (lastQuery[entity] != query) {
+                        lastQuery[entity] = query;
+                        result[count++] = entity;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    private static int cell(float coordinate) {
+        return (int) Math.floor(coordinate / HIT_GRID_CELL_SIZE);
+    }
+
+    private static int bucket(int cellX, int cellY) {
+        // large primes spread neighbouring cells over different buckets
+        int hash = cellX * 73856093 ^ cellY * 19349663;
+        return Math.floorMod(hash, HIT_GRID_BUCKETS);
+    }
+}
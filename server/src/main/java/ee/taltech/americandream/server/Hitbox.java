@@ -0,0 +1,27 @@
+package ee.taltech.americandream.server;
+
+/**
+ * Intersection tests of axis-aligned hitboxes, given by their minimum and maximum corners.
+ */
+public class Hitbox {
+
+    /**
+     * Move a hitbox horizontally and find when it starts to intersect a hitbox that stays in place.
+     * Touching edges do not count.
+     * @param moveX horizontal move of the first hitbox
+     * @return fraction of the move (0..1) at which the hitboxes start to intersect, -1 if they don't intersect during the move
+     */
+    public static float sweep(float minX1, float minY1, float maxX1, float maxY1, float moveX,
+                              float minX2, float minY2, float maxX2, float maxY2) {
+        // vertical overlap doesn't change while moving horizontally
+        if (!(minY1 < maxY2 && minY2 < maxY1)) return -1;
+        if (moveX == 0) {
+            return minX1 < maxX2 && minX2 < maxX1 ? 0 : -1;
+        }
+        // times at which the hitboxes start and stop intersecting horizontally
+        float entry = moveX > 0 ? (minX2 - maxX1) / moveX : (maxX2 - minX1) / moveX;
+        float exit = moveX > 0 ? (maxX2 - minX1) / moveX : (minX2 - maxX1) / moveX;
+        if (entry >= 1 || exit <= 0) return -1;
+        return Math.max(entry, 0);
+    }
+}
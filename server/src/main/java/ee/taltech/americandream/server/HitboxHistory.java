@@ -0,0 +1,59 @@
+package ee.taltech.americandream.server;
+
+import helper.PlayerState;
+
+import java.util.Arrays;
+
+import static helper.Constants.HITBOX_HISTORY_SIZE;
+
+/**
+ * Player positions of the last HITBOX_HISTORY_SIZE ticks, used for checking bullet hits
+ * against where the shooter saw the players instead of where they are now.
+ * Arrays are allocated once, recording and reading does not allocate.
+ */
+public class HitboxHistory {
+    // [tick % HITBOX_HISTORY_SIZE][entityId]
+    private final float[][] xs;
+    private final float[][] ys;
+    private final int[] ticks = new int[HITBOX_HISTORY_SIZE];
+    private int newestTick = -1;
+
+    public HitboxHistory(int playerCount) {
+        xs = new float[HITBOX_HISTORY_SIZE][playerCount];
+        ys = new float[HITBOX_HISTORY_SIZE][playerCount];
+        Arrays.fill(ticks, -1);
+    }
+
+    /**
+     * Remember player positions of a tick, player states are indexed by entityId.
+     */
+    public void record(int tick, PlayerState[] playerStates) {
+        int slot = tick % HITBOX_HISTORY_SIZE;
+        for (int i = 0; i < playerStates.length; i++) {
+            xs[slot][i] = playerStates[i].x;
+            ys[slot][i] = playerStates[i].y;
+        }
+        ticks[slot] = tick;
+        newestTick = tick;
+    }
+
+    public float getX(int entityId, int tick) {
+        return xs[findSlot(tick)][entityId];
+    }
+
+    public float getY(int entityId, int tick) {
+        return ys[findSlot(tick)][entityId];
+    }
+
+    /**
+     * Find the recorded tick closest to the requested one, going forward from ticks that are no longer kept.
+     */
+    private int findSlot(int tick) {
+        // nothing has been recorded before tick 0
+        tick = Math.max(Math.min(tick, newestTick), Math.max(newestTick - HITBOX_HISTORY_SIZE + 1, 0));
+        while (ticks[tick % HITBOX_HISTORY_SIZE] != tick && tick < newestTick) {
+            tick++;
+        }
+        return tick % HITBOX_HISTORY_SIZE;
+    }
+}
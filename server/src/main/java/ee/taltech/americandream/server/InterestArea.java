@@ -0,0 +1,23 @@
+package ee.taltech.americandream.server;
+
+import static helper.Constants.INTEREST_HALF_HEIGHT;
+import static helper.Constants.INTEREST_HALF_WIDTH;
+
+/**
+ * Region around a player that the player's client needs to know about.
+ * Bullets outside of it are not sent to that client, players are always sent for the HUD and indicators.
+ * With PROJECTILE_EVENTS on, ProjectileInterest only sends spawn events for bullets inside the area,
+ * otherwise SnapshotPacker leaves the bullets outside of it out of the player's snapshots.
+ */
+public class InterestArea {
+
+    /**
+     * @param playerX position of the player receiving the game state
+     * @param playerY position
+     * @param x position of the entity
+     * @param y position
+     */
+    public static boolean contains(float playerX, float playerY, float x, float y) {
+        return Math.abs(x - playerX) <= INTEREST_HALF_WIDTH && Math.abs(y - playerY) <= INTEREST_HALF_HEIGHT;
+    }
+}
@@ -1,14 +1,13 @@
 package ee.taltech.americandream.server;
 
 import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
 import helper.packet.GameLeaveMessage;
 import helper.packet.MapSelectionMessage;
 
 import java.util.ArrayList;
 import java.util.List;
 
-public class Lobby {
+public class Lobby implements Session {
     private static int id = 1;
     private final int lobbySize;
     private final String name;
@@ -70,36 +69,40 @@ public class Lobby {
         connections.removeIf(connection -> !connection.isConnected());
     }
 
+    /**
+     * Receives: GameLeaveMessage - message indicating that a client has left the game instance
+     * Receives: MapSelectionMessage - map chosen by a client in the lobby
+     */
+    @Override
+    public void received(Connection connection, Object message) {
+        if (message instanceof GameLeaveMessage) {
+            // remove connection from lobby and restart game if needed
+            connections.remove(connection);
+            MessageRouter.getInstance().detach(connection, MessageRouter.Scope.LOBBY, this);
+            if (connections.size() <= 1 && game != null) {
+                game.end();
+            }
+        }
+        if (message instanceof MapSelectionMessage) {
+            currentMap = ((MapSelectionMessage) message).currentMap;
+            System.out.println("received MapSelectionMessage: " + currentMap);
+        }
+    }
+
+    @Override
+    public void disconnected(Connection connection) {
+        connections.remove(connection);
+    }
+
     /**
      * Check for and add new connections (clients).
      * Remove disconnected clients.
-     * Receives: GameLeaveMessage - message indicating that a client has left the game instance
      *
      * @param connection connection with a specific client
      */
     public void addConnection(Connection connection) {
         removeDisconnected();
 
-        // check for game leave message
-        connection.addListener(new Listener() {
-            @Override
-            public void received(Connection connection, Object object) {
-                super.received(connection, object);
-                if (object instanceof GameLeaveMessage) {
-                    // remove connection from lobby and restart game if needed
-                    connections.remove(connection);
-                    if (connections.size() <= 1 && game != null) {
-                        game.end();
-                    }
-                }
-                if (object instanceof MapSelectionMessage) {
-                    currentMap = ((MapSelectionMessage) object).currentMap;
-                    System.out.println("received MapSelectionMessage: " + currentMap);
-                }
-
-            }
-        });
-
         // check if lobby is full
         if (connections.size() >= lobbySize) return;
 
@@ -108,6 +111,7 @@ public class Lobby {
 
         // add connection to the lobby
         connections.add(connection);
+        MessageRouter.getInstance().attach(connection, MessageRouter.Scope.LOBBY, this);
     }
 
     /**
@@ -120,7 +124,7 @@ public class Lobby {
 
         // create a new game and start it
         game = new Game(connectionArray, this);
-        game.start();
+        MatchScheduler.start(game);
     }
 
     /**
@@ -136,6 +140,7 @@ public class Lobby {
      */
     public void clearLobby() {
         game = null;
+        connections.forEach(connection -> MessageRouter.getInstance().detach(connection, MessageRouter.Scope.LOBBY, this));
         connections.clear();
     }
 }
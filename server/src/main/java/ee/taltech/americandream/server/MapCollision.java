@@ -0,0 +1,274 @@
+package ee.taltech.americandream.server;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static helper.Constants.MAP_GRID_CELL_SIZE;
+
+/**
+ * Static geometry of a map, read from the polygons of the .tmx object layer that the client turns into
+ * Box2D bodies in TileMapHelper. Every polygon is stored as its bounding box, in the client's world
+ * coordinates (y up, pixels), which is exact for the rectangular platforms the maps are made of.
+ * One-way platforms (named "platform") can be stood on but let bullets through, like the client's
+ * platform bodies let players jump through them, so only the other boxes are indexed by the uniform grid
+ * that bullets are swept against. The grid is built once per map.
+ * Maps are loaded once and shared by all games, queries do not modify the map or allocate.
+ */
+public class MapCollision {
+    // map name -> loaded map, the same as the client's GameScreen map selection
+    private static final Map<String, MapCollision> MAPS = new ConcurrentHashMap<>();
+
+    private final float[] minXs;
+    private final float[] minYs;
+    private final float[] maxXs;
+    private final float[] maxYs;
+    // true for one-way platforms, these are not in the grid
+    private final boolean[] oneWays;
+    // grid covering the bounds of all boxes
+    private final float originX;
+    private final float originY;
+    private final int columns;
+    private final int rows;
+    // boxes of cell i are cellBoxes[cellStarts[i]] .. cellBoxes[cellStarts[i + 1] - 1]
+    private final int[] cellStarts;
+    private final int[] cellBoxes;
+    // "Center" point of the map, players respawn above it
+    private final float centerX;
+    private final float centerY;
+
+    private MapCollision(float[] minXs, float[] minYs, float[] maxXs, float[] maxYs, boolean[] oneWays,
+                         float centerX, float centerY) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        this.minXs = minXs;
+        this.minYs = minYs;
+        this.maxXs = maxXs;
+        this.maxYs = maxYs;
+        this.oneWays = oneWays;
+        float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE;
+        for (int i = 0; i < minXs.length; i++) {
+            minX = Math.min(minX, minXs[i]);
+            minY = Math.min(minY, minYs[i]);
+            maxX = Math.max(maxX, maxXs[i]);
+            maxY = Math.max(maxY, maxYs[i]);
+        }
+        if (minXs.length == 0) {
+            minX = minY = maxX = maxY = 0;
+        }
+        originX = minX;
+        originY = minY;
+        columns = (int) ((maxX - minX) / MAP_GRID_CELL_SIZE) + 1;
+        rows = (int) ((maxY - minY) / MAP_GRID_CELL_SIZE) + 1;
+
+        // count the boxes of each cell, then fill them in
+        cellStarts = new int[columns * rows + 1];
+        for (int i = 0; i < minXs.length; i++) {
+            if (oneWays[i]) continue;
+            for (int row = row(minYs[i]); row <= row(maxYs[i]); row++) {
+                for (int column = column(minXs[i]); column <= column(maxXs[i]); column++) {
+                    cellStarts[row * columns + column + 1]++;
+                }
+            }
+        }
+        for (int cell = 0; cell < columns * rows; cell++) {
+            cellStarts[cell + 1] += cellStarts[cell];
+        }
+        cellBoxes = new int[cellStarts[columns * rows]];
+        int[] filled = new int[columns * rows];
+        for (int i = 0; i < minXs.length; i++) {
+            if (oneWays[i]) continue;
+            for (int row = row(minYs[i]); row <= row(maxYs[i]); row++) {
+                for (int column = column(minXs[i]); column <= column(maxXs[i]); column++) {
+                    int cell = row * columns + column;
+                    cellBoxes[cellStarts[cell] + filled[cell]++] = i;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the geometry of a map, loading it on first use.
+     * @param mapName map selected in the lobby, null for the default map
+     * @return geometry of the map
+     * @throws IllegalStateException if the map file is missing or can't be read
+     */
+    public static MapCollision get(String mapName) {
+        return MAPS.computeIfAbsent(getFileName(mapName), MapCollision::load);
+    }
+
+    /**
+     * Same file names as the client's GameScreen.
+     */
+    private static String getFileName(String mapName) {
+        if (mapName == null) return "City.tmx";
+        return switch (mapName) {
+            case "Swamp" -> "first_level.tmx";
+            case "Desert" -> "Desert.tmx";
+            case "AiMap" -> "AiMap.tmx";
+            default -> "City.tmx";
+        };
+    }
+
+    /**
+     * Read the polygons of the "objects" layer. Tiled's y axis points down, so y is flipped to the client's
+     * world coordinates the same way libGDX's TmxMapLoader does.
+     */
+    private static MapCollision load(String fileName) {
+        try (InputStream inputStream = MapCollision.class.getResourceAsStream("/" + fileName)) {
+            if (inputStream == null) {
+                throw new IllegalStateException("Map " + fileName + " not found");
+            }
+            Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(inputStream);
+            Element map = document.getDocumentElement();
+            float mapHeight = Float.parseFloat(map.getAttribute("height")) * Float.parseFloat(map.getAttribute("tileheight"));
+
+            List<float[]> boxes = new ArrayList<>();
+            List<Boolean> oneWayList = new ArrayList<>();
+            float centerX = Float.NaN;
+            float centerY = Float.NaN;
+            NodeList layers = map.getElementsByTagName("objectgroup");
+            for (int l = 0; l < layers.getLength(); l++) {
+                Element layer = (Element) layers.item(l);
+                if (!layer.getAttribute("name").equals("objects")) continue;
+                NodeList objects = layer.getElementsByTagName("object");
+                for (int o = 0; o < objects.getLength(); o++) {
+                    Element object = (Element) objects.item(o);
+                    if (object.getAttribute("name").equals("Center")) {
+                        // the client reads it as a rectangle, the y of its bottom edge is flipped
+                        float height = object.hasAttribute("height") ? Float.parseFloat(object.getAttribute("height")) : 0;
+                        centerX = Float.parseFloat(object.getAttribute("x"));
+                        centerY = mapHeight - (Float.parseFloat(object.getAttribute("y")) + height);
+                        continue;
+                    }
+                    // only polygons are platforms, rectangles are spawn points
+                    NodeList polygons = object.getElementsByTagName("polygon");
+                    if (polygons.getLength() == 0) continue;
+                    float x = Float.parseFloat(object.getAttribute("x"));
+                    float y = Float.parseFloat(object.getAttribute("y"));
+                    float[] box = {Float.MAX_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE, -Float.MAX_VALUE};
+                    for (String point : ((Element) polygons.item(0)).getAttribute("points").trim().split("\\s+")) {
+                        String[] coordinates = point.split(",");
+                        float pointX = x + Float.parseFloat(coordinates[0]);
+                        float pointY = mapHeight - (y + Float.parseFloat(coordinates[1]));
+                        box[0] = Math.min(box[0], pointX);
+                        box[1] = Math.min(box[1], pointY);
+                        box[2] = Math.max(box[2], pointX);
+                        box[3] = Math.max(box[3], pointY);
+                    }
+                    boxes.add(box);
+                    oneWayList.add(object.getAttribute("name").equals("platform"));
+                }
+            }
+
+            float[] minXs = new float[boxes.size()];
+            float[] minYs = new float[boxes.size()];
+            float[] maxXs = new float[boxes.size()];
+            float[] maxYs = new float[boxes.size()];
+            boolean[] oneWays = new boolean[boxes.size()];
+            for (int i = 0; i < boxes.size(); i++) {
+                minXs[i] = boxes.get(i)[0];
+                minYs[i] = boxes.get(i)[1];
+                maxXs[i] = boxes.get(i)[2];
+                maxYs[i] = boxes.get(i)[3];
+                oneWays[i] = oneWayList.get(i);
+            }
+            return new MapCollision(minXs, minYs, maxXs, maxYs, oneWays, centerX, centerY);
+        } catch (IOException | ParserConfigurationException | SAXException | NumberFormatException e) {
+            throw new IllegalStateException("Map " + fileName + " could not be read", e);
+        }
+    }
+
+    /**
+     * @return x of the map's center point, NaN if the map has none
+     */
+    public float getCenterX() {
+        return centerX;
+    }
+
+    /**
+     * @return y of the map's center point, NaN if the map has none
+     */
+    public float getCenterY() {
+        return centerY;
+    }
+
+    private int column(float x) {
+        return Math.max(0, Math.min(columns - 1, (int) Math.floor((x - originX) / MAP_GRID_CELL_SIZE)));
+    }
+
+    private int row(float y) {
+        return Math.max(0, Math.min(rows - 1, (int) Math.floor((y - originY) / MAP_GRID_CELL_SIZE)));
+    }
+
+    /**
+     * Move a hitbox horizontally and find when it first runs into the map, one-way platforms are passed through.
+     * @param moveX horizontal move of the hitbox
+     * @return fraction of the move (0..1) at which the hitbox hits a solid object, -1 if it doesn't
+     */
+    public float sweep(float minX, float minY, float maxX, float maxY, float moveX) {
+        if (minXs.length == 0) return -1;
+        float pathMinX = Math.min(minX, minX + moveX);
+        float pathMaxX = Math.max(maxX, maxX + moveX);
+        float first = -1;
+        // cells clamp to the grid, boxes outside of it are filtered by the sweep itself
+        for (int row = row(minY); row <= row(maxY); row++) {
+            for (int column = column(pathMinX); column <= column(pathMaxX); column++) {
+                int cell = row * columns + column;
+                for (int i = cellStarts[cell]; i < cellStarts[cell + 1]; i++) {
+                    int box = cellBoxes[i];
+                    float time = Hitbox.sweep(minX, minY, maxX, maxY, moveX, minXs[box], minYs[box], maxXs[box], maxYs[box]);
+                    if (time >= 0 && (first < 0 || time < first)) {
+                        first = time;
+                    }
+                }
+            }
+        }
+        return first;
+    }
+
+    /**
+     * Find the top of the highest platform at x, something falling down at x lands there first.
+     * @return y of the highest platform top at x, NaN if there is no platform at x
+     */
+    public float getSurfaceY(float x) {
+        float surfaceY = Float.NaN;
+        for (int i = 0; i < minXs.length; i++) {
+            if (x >= minXs[i] && x <= maxXs[i] && (Float.isNaN(surfaceY) || maxYs[i] > surfaceY)) {
+                surfaceY = maxYs[i];
+            }
+        }
+        return surfaceY;
+    }
+
+    /**
+     * Move x onto the closest platform, at least margin away from the platform's edges if it is wide enough.
+     * @return x on a platform, or x itself if the map has no platforms
+     */
+    public float clampToSurface(float x, float margin) {
+        float closestX = x;
+        float closestDistance = Float.MAX_VALUE;
+        for (int i = 0; i < minXs.length; i++) {
+            float left = Math.min(minXs[i] + margin, (minXs[i] + maxXs[i]) / 2);
+            float right = Math.max(maxXs[i] - margin, (minXs[i] + maxXs[i]) / 2);
+            float clamped = Math.max(left, Math.min(right, x));
+            float distance = Math.abs(clamped - x);
+            if (distance < closestDistance) {
+                closestDistance = distance;
+                closestX = clamped;
+            }
+        }
+        return closestX;
+    }
+}
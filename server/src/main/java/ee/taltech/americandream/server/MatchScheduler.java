@@ -0,0 +1,154 @@
+package ee.taltech.americandream.server;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static helper.Constants.TICK_RATE;
+
+/**
+ * Fixed pool of worker threads that tick all games, one worker per core.
+ * A game stays on the worker it was given to, so its data stays in that core's cache.
+ * A worker that has time left over steals a game from a worker that could not finish its ticks in time.
+ */
+public class MatchScheduler {
+    private static MatchScheduler instance;
+    private static ThreadingMode threadingMode = ThreadingMode.POOL;
+    private final List<Worker> workers = new ArrayList<>();
+
+    private MatchScheduler(int workerCount) {
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker(i);
+            workers.add(worker);
+            worker.start();
+        }
+    }
+
+    public static synchronized MatchScheduler getInstance() {
+        if (instance == null) {
+            instance = new MatchScheduler(Runtime.getRuntime().availableProcessors());
+        }
+        return instance;
+    }
+
+    public static void setThreadingMode(ThreadingMode threadingMode) {
+        MatchScheduler.threadingMode = threadingMode;
+    }
+
+    public static ThreadingMode getThreadingMode() {
+        return threadingMode;
+    }
+
+    /**
+     * Start ticking a game according to the threading mode.
+     */
+    public static void start(Game game) {
+        switch (threadingMode) {
+            case POOL -> getInstance().schedule(game);
+            case PLATFORM -> new Thread(game).start();
+            case VIRTUAL -> VirtualThreads.factory().newThread(game).start();
+        }
+    }
+
+    /**
+     * Give the game to the worker with the fewest games.
+     */
+    public void schedule(Game game) {
+        Worker worker = workers.stream().min(Comparator.comparingInt(w -> w.gameCount.get())).orElseThrow();
+        worker.gameCount.incrementAndGet();
+        worker.inbox.add(game);
+    }
+
+    private class Worker extends Thread {
+        // games handed to this worker by schedule() and by stealing, taken over before the next tick
+        private final Queue<Game> inbox = new ConcurrentLinkedQueue<>();
+        // only used by the worker thread
+        private final List<Game> games = new ArrayList<>();
+        // worker that wants one of this worker's games
+        private final AtomicReference<Worker> stealRequest = new AtomicReference<>();
+        // games owned by the worker, including the ones still in the inbox
+        private final AtomicInteger gameCount = new AtomicInteger();
+        private volatile boolean behind = false;
+
+        Worker(int index) {
+            super("match-worker-" + index);
+            setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            TickScheduler tickScheduler = new TickScheduler(TICK_RATE);
+            long tickNanos = TimeUnit.SECONDS.toNanos(1) / TICK_RATE;
+            while (true) {
+                long start = System.nanoTime();
+                for (Game game; (game = inbox.poll()) != null; ) {
+                    games.add(game);
+                }
+                // compacted in place, a lambda capturing the worker would be allocated every tick
+                int running = 0;
+                for (int i = 0; i < games.size(); i++) {
+                    Game game = games.get(i);
+                    if (tickSafely(game)) {
+                        games.set(running++, game);
+                    } else {
+                        gameCount.decrementAndGet();
+                    }
+                }
+                while (games.size() > running) {
+                    games.remove(games.size() - 1);
+                }
+
+                // hand a game over between ticks, so it is never ticked by two workers at once
+                Worker thief = stealRequest.getAndSet(null);
+                if (thief != null && games.size() > 1) {
+                    gameCount.decrementAndGet();
+                    thief.gameCount.incrementAndGet();
+                    thief.inbox.add(games.remove(games.size() - 1));
+                }
+
+                long busy = System.nanoTime() - start;
+                behind = busy > tickNanos;
+                // plenty of time left, help a worker that is behind
+                if (busy < tickNanos / 2) {
+                    requestSteal();
+                }
+                try {
+                    long dropped = tickScheduler.waitForNextTick();
+                    // every game on the worker was late by the same amount
+                    for (int i = 0; i < games.size(); i++) {
+                        games.get(i).scheduled(tickScheduler.isLate(), dropped);
+                    }
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+
+        private void requestSteal() {
+            for (Worker victim : workers) {
+                if (victim != this && victim.behind && victim.gameCount.get() > 1
+                        && victim.stealRequest.compareAndSet(null, this)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * An exception in one game ends that game, the other games on the worker keep running.
+         */
+        private boolean tickSafely(Game game) {
+            try {
+                return game.tick();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                game.end();
+                return false;
+            }
+        }
+    }
+}
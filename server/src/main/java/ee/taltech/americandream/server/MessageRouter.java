@@ -0,0 +1,152 @@
+package ee.taltech.americandream.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import com.esotericsoftware.kryonet.Listener;
+import helper.packet.AddUfoMessage;
+import helper.packet.GameLeaveMessage;
+import helper.packet.GunPickupMessage;
+import helper.packet.JoinLobbyMessage;
+import helper.packet.MapSelectionMessage;
+import helper.packet.PlayerInputMessage;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The only listener of the server. Every received message is looked up by its class and passed to the
+ * sessions of its connection that handle it, so the cost of a message doesn't depend on how many
+ * lobbies and matches the connection has been in.
+ * Lobbies and matches attach themselves to their connections and detach when they are left or ended.
+ */
+public class MessageRouter extends Listener {
+    private static MessageRouter instance;
+
+    public enum Scope {
+        // handled by the server for every connection
+        SERVER,
+        LOBBY,
+        MATCH
+    }
+
+    // message class -> scopes that handle it, not modified after construction
+    private final Map<Class<?>, Scope[]> routes = new HashMap<>();
+    private final Map<Connection, ConnectionSessions> connections = new ConcurrentHashMap<>();
+    private volatile Session serverSession;
+
+    private MessageRouter() {
+        route(JoinLobbyMessage.class, Scope.SERVER);
+        route(MapSelectionMessage.class, Scope.LOBBY);
+        route(GameLeaveMessage.class, Scope.LOBBY, Scope.MATCH);
+        route(PlayerInputMessage.class, Scope.MATCH);
+        route(AddUfoMessage.class, Scope.MATCH);
+        route(GunPickupMessage.class, Scope.MATCH);
+    }
+
+    public static synchronized MessageRouter getInstance() {
+        if (instance == null) {
+            instance = new MessageRouter();
+        }
+        return instance;
+    }
+
+    private void route(Class<?> type, Scope... scopes) {
+        routes.put(type, scopes);
+    }
+
+    public void setServerSession(Session serverSession) {
+        this.serverSession = serverSession;
+    }
+
+    /**
+     * Make the session the connection's current lobby or match, replacing the previous one.
+     * A connection that has already disconnected is reported to the session right away.
+     */
+    public void attach(Connection connection, Scope scope, Session session) {
+        ConnectionSessions connectionSessions = connections.get(connection);
+        if (connectionSessions == null) {
+            session.disconnected(connection);
+            return;
+        }
+        connectionSessions.sessions.set(scope.ordinal(), session);
+    }
+
+    /**
+     * Stop routing messages to the session, if it is still the connection's current one.
+     */
+    public void detach(Connection connection, Scope scope, Session session) {
+        ConnectionSessions connectionSessions = connections.get(connection);
+        if (connectionSessions != null) {
+            connectionSessions.sessions.compareAndSet(scope.ordinal(), session, null);
+        }
+    }
+
+    @Override
+    public void connected(Connection connection) {
+        connections.put(connection, new ConnectionSessions());
+    }
+
+    @Override
+    public void received(Connection connection, Object object) {
+        Scope[] scopes = routes.get(object.getClass());
+        // framework messages and messages the server doesn't handle
+        if (scopes == null) return;
+        ConnectionSessions connectionSessions = connections.get(connection);
+        // arrived after the connection was closed, its sessions are gone
+        if (connectionSessions == null) return;
+        connectionSessions.execute(() -> {
+            for (Scope scope : scopes) {
+                Session session = scope == Scope.SERVER
+                        ? serverSession
+                        : connectionSessions.sessions.get(scope.ordinal());
+                if (session != null) {
+                    session.received(connection, object);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void disconnected(Connection connection) {
+        ConnectionSessions connectionSessions = connections.remove(connection);
+        if (connectionSessions == null) return;
+        connectionSessions.execute(() -> {
+            for (int i = 0; i < connectionSessions.sessions.length(); i++) {
+                Session session = connectionSessions.sessions.getAndSet(i, null);
+                if (session != null) {
+                    session.disconnected(connection);
+                }
+            }
+        });
+        connectionSessions.shutdown();
+    }
+
+    /**
+     * Current sessions of a connection, indexed by scope.
+     * In virtual thread mode the connection's messages are handled in order on its own virtual thread.
+     */
+    private static class ConnectionSessions {
+        private final AtomicReferenceArray<Session> sessions = new AtomicReferenceArray<>(Scope.values().length);
+        private final ExecutorService executor = MatchScheduler.getThreadingMode() == ThreadingMode.VIRTUAL
+                ? Executors.newSingleThreadExecutor(VirtualThreads.factory())
+                : null;
+
+        private void execute(Runnable task) {
+            if (executor == null) {
+                task.run();
+            } else {
+                executor.execute(task);
+            }
+        }
+
+        private void shutdown() {
+            // already queued messages are still handled
+            if (executor != null) {
+                executor.shutdown();
+            }
+        }
+    }
+}
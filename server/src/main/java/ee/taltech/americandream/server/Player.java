@@ -1,16 +1,12 @@
 package ee.taltech.americandream.server;
 
 import com.esotericsoftware.kryonet.Connection;
-import com.esotericsoftware.kryonet.Listener;
-import helper.BulletData;
 import helper.Direction;
-import helper.PlayerListener;
+import helper.PlayerCommand;
 import helper.PlayerState;
 import helper.packet.*;
 
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.List;
 import java.util.Objects;
 
 import static helper.Constants.*;
@@ -18,92 +14,127 @@ import static helper.Constants.*;
 public class Player {
     private final boolean thisIsAI;
     private final int id;
+    private final int entityId;
     private final Game game;
     private final Connection connection;
-    private final List<BulletData> playerBullets;
+    private final SnapshotHistory snapshotHistory;
+    private final SnapshotPacker snapshotPacker;
+    private final ProjectileInterest projectileInterest;
+    private final SnapshotRate snapshotRate;
     private float x;
     private float y;
     private Direction direction;
     private String name;
     private Integer livesCount;
     private int damage = 0;
+    // hits so far and the knockback of the latest one, kept in every state until the next hit
+    private int hitSequence = 0;
+    private float hitForce = 0;
     private Direction nextBulletDirection;
     private float bulletTimeout;
     private float velX, velY;
     private int isShooting;
-    private int maxAmmo = 10;
-    private int ammoCount = maxAmmo;  // different amount could cause bugs; additional 'has game started' checking required
+    private Weapon weapon = Weapons.getDefault();
+    private int ammoCount = weapon.ammo();  // different amount could cause bugs; additional 'has game started' checking required
     private float ammoDelta = 0;
-    private boolean gunPickedUp = false;
-    private float bulletForce = 1000;
-    private float bulletSpeed = 5;
-    private float ammoIncrementingTime = 0.75f;
-    private float shootDelay = 0.3f;
+    // weapon of the player's character that a gunbox gives, -1 if the character has none
+    private int gunId = -1;
+    private int lastInputSequence = -1;
 
     /**
-     * Initialize server-side representation of a player based on the PlayerPositionMessages sent by a specific client.
-     * Receives: PlayerPositionMessage - data regarding the player, including lives
-     *           BulletMessage - indicates that the player has shot a new bullet
+     * Initialize server-side representation of a player based on the PlayerInputMessages sent by a specific client.
+     * Receives: PlayerInputMessage - data regarding the player, including lives and shooting
      *           AddAiMessage - Player has triggered the activation of AI player
      * @param connection connection to the client
      * @param game game instance
      * @param id player id
+     * @param entityId index of the player in the game instance
      */
-    public Player(Connection connection, Game game, int id, boolean thisIsAI) {
+    public Player(Connection connection, Game game, int id, int entityId, boolean thisIsAI) {
         // create player
         this.thisIsAI = thisIsAI;
         this.id = id;
+        this.entityId = entityId;
         this.game = game;
         this.connection = connection;
-        this.playerBullets = new ArrayList<>();
+        this.snapshotHistory = new SnapshotHistory();
+        this.snapshotPacker = new SnapshotPacker();
+        this.projectileInterest = new ProjectileInterest();
+        this.snapshotRate = new SnapshotRate();
         this.bulletTimeout = 0;
+    }
 
-        // add listeners
-        connection.addListener(new PlayerListener(this, game));
+    public Connection getConnection() {
+        return connection;
     }
 
     public int getId() {
         return this.id;
     }
 
+    public int getEntityId() {
+        return entityId;
+    }
+
     public String getName() {
         return this.name;
     }
 
-    public List<BulletData> getPlayerBullets() {
-        return playerBullets;
+    public float getX() {
+        return x;
     }
 
-    public float getBulletForce() {
-        return bulletForce;
+    public float getY() {
+        return y;
     }
 
     public float getBulletSpeed() {
-        return bulletSpeed;
+        return weapon.bulletSpeed();
     }
 
     public boolean isThisIsAI() {
         return thisIsAI;
     }
 
-    public boolean isGunPickedUp() {
-        return gunPickedUp;
+    public Weapon getWeapon() {
+        return weapon;
     }
 
-    public void setGunPickedUp(boolean gunPickedUp) {
-        this.gunPickedUp = gunPickedUp;
+    public int getGunId() {
+        return gunId;
     }
 
-    public void setAmmoIncrementingTime(float ammoIncrementingTime) {
-        this.ammoIncrementingTime = ammoIncrementingTime;
+    public int getHitSequence() {
+        return hitSequence;
+    }
+
+    /**
+     * Send a ping to the client, its round trip time is read by the snapshot rate and by getRewindTicks.
+     */
+    public void updateReturnTripTime() {
+        // the AI shares the connection of its player
+        if (!thisIsAI) connection.updateReturnTripTime();
+    }
+
+    /**
+     * How many ticks behind the server the player sees other players: half the round trip
+     * plus the client's interpolation delay, limited to MAX_REWIND_TICKS.
+     */
+    public int getRewindTicks() {
+        // the AI sees the real player on the client directly
+        if (thisIsAI) return 0;
+        // -1 until the first ping has returned
+        int rtt = Math.max(connection.getReturnTripTime(), 0);
+        int latencyTicks = Math.round(rtt / 2f / 1000f * TICK_RATE);
+        return Math.min(latencyTicks + CLIENT_INTERPOLATION_DELAY_TICKS, MAX_REWIND_TICKS);
     }
 
     /**
-     * Generate new PlayerState.
+     * Copy the player's data into a reused PlayerState.
      */
-    public PlayerState getState() {
-        PlayerState state = new PlayerState();
+    public void writeState(PlayerState state) {
         state.id = id;
+        state.entityId = entityId;
         state.x = x;
         state.y = y;
         state.direction = direction;
@@ -112,128 +143,190 @@ public class Player {
         state.velY = velY;
         state.isShooting = isShooting;
         state.damage = damage;
-        state.name = name;
+        state.applyForce = hitForce;
+        state.hitSequence = hitSequence;
         state.ammoCount = ammoCount;
         state.thisIsAI = thisIsAI;
-        return state;
+        state.lastInputSequence = lastInputSequence;
     }
 
     /**
-     * Update player's position according to received PlayerPositionMessage.
-     * Update existing bullets' positions and add new bullets that are shot by the player.
-     * Remove bullets that are out of bounds.
+     * @return true once the player has 0 lives, false before the first input message
+     */
+    public boolean isDead() {
+        return livesCount != null && livesCount == 0;
+    }
+
+    /**
+     * @return false until the client has sent its first position
+     */
+    public boolean hasJoined() {
+        return direction != null;
+    }
+
+    /**
+     * Update player's position according to received PlayerInputMessage.
+     * Add new bullets that are shot by the player, the game moves and removes them.
      * @param delta tick rate
      */
     public void update(float delta) {
         // will shoot a bullet if the bulletTimeout is 0
-        if (nextBulletDirection != null && bulletTimeout >= shootDelay && ammoCount > 0) {
-            // construct the bullet to be shot
-            BulletData bulletData = new BulletData();
-            bulletData.x = x + (nextBulletDirection == Direction.LEFT ? -1 : 1) * 20;
-            bulletData.id = id;
-            bulletData.name = name;
-            bulletData.y = y;
-            bulletData.speedBullet = bulletSpeed * (nextBulletDirection == Direction.LEFT ? -1 : 1);
-            bulletData.shotWithGun = gunPickedUp;
-            playerBullets.add(bulletData);
+        if (nextBulletDirection != null && bulletTimeout >= weapon.shootDelay() && ammoCount > 0) {
+            // shoot the bullet
+            float directionSign = nextBulletDirection == Direction.LEFT ? -1 : 1;
+            game.getProjectiles().spawn(entityId, x + directionSign * 20, y, weapon.bulletSpeed() * directionSign, weapon.id());
             ammoCount--;
             // reset variables
             bulletTimeout = 0;
             nextBulletDirection = null;
         }
         bulletTimeout += delta;
-        if (ammoIncrementingTime != 0) {
+        if (weapon.ammoRegenTime() != 0) {
             ammoDelta += delta;
-            if (ammoDelta >= ammoIncrementingTime && ammoCount < maxAmmo) {
-                ammoDelta = ammoDelta % ammoIncrementingTime;
+            if (ammoDelta >= weapon.ammoRegenTime() && ammoCount < weapon.ammo()) {
+                ammoDelta = ammoDelta % weapon.ammoRegenTime();
                 ammoCount++;
             }
         }
-        if (gunPickedUp && ammoCount == 0) {
-            gunPickedUp = false;
-            ammoIncrementingTime = 0.75f;
-            changeGun(10, 500, 5, 0.3f);
+        // picked up guns are dropped when they run out of ammo
+        if (weapon.id() != Weapons.DEFAULT_ID && ammoCount == 0) {
+            pickUpWeapon(Weapons.getDefault());
+        }
+    }
+
+    /**
+     * Handle incoming PlayerInputMessages.
+     * Every message repeats the commands that the server has not acknowledged yet,
+     * so commands that have already been applied are skipped. Rest of the bullet logic is server-sided.
+     */
+    public void handleInputMessage(PlayerInputMessage inputMessage) {
+        if (!Objects.equals(name, inputMessage.name)) {
+            name = inputMessage.name;
+            gunId = Weapons.gunIdOf(name);
+            game.playerNamesChanged();
         }
+        snapshotHistory.acknowledge(inputMessage.lastSnapshotTick);
+        if (inputMessage.commands == null) return;
 
-        // remove bullets that are out of bounds
-        playerBullets.removeIf(bullet -> bullet.x < x - BOUNDS || bullet.x > x + BOUNDS);
-        // move bullets
-        for (BulletData bullet : playerBullets) {
-            bullet.x += bullet.speedBullet;
+        int previousSequence = lastInputSequence;
+        boolean newCommands = false;
+        Direction shootDirection = null;
+        for (PlayerCommand command : inputMessage.commands) {
+            if (command.sequence <= lastInputSequence) continue;
+            // commands lost beyond the resent ones allow a longer move
+            int commandCount = lastInputSequence < 0 ? 1 : command.sequence - lastInputSequence;
+            lastInputSequence = command.sequence;
+            newCommands = true;
+            applyCommand(command, commandCount);
+            // fire intent of a lost packet is recovered from the resent commands
+            if (command.isShooting != 0) {
+                shootDirection = command.isShooting < 0 ? Direction.LEFT : Direction.RIGHT;
+            }
+        }
+        if (newCommands) {
+            nextBulletDirection = shootDirection;
+        }
+        // the first message has nothing to compare to
+        if (previousSequence >= 0) {
+            snapshotRate.inputReceived(lastInputSequence - previousSequence);
         }
     }
 
     /**
-     * Each time a player shoots a new bullet, a BulletMessage is sent. Rest of the bullet logic is server-sided.
+     * Apply a single command. In authoritative mode the server owns the position: a move longer than
+     * the client's physics can make in the given number of commands is cut short, and the client
+     * corrects its prediction once the command is acknowledged.
+     * The server also decides respawns: a lost life is only accepted when the player has fallen out of
+     * the map, lives never increase and the player is placed at the map's spawn point.
+     * @param commandCount commands since the previously applied one
      */
-    public void handleNewBullet(BulletMessage bulletMessage) {
-        // handle bullet message
-        nextBulletDirection = bulletMessage.direction;
+    private void applyCommand(PlayerCommand command, int commandCount) {
+        if (!AUTHORITATIVE_MOVEMENT || livesCount == null) {
+            // the first command places the player, without authority the client is trusted
+            if (livesCount != null && !Objects.equals(command.livesCount, livesCount)) {
+                // reset damage after respawning
+                damage = 0;
+            }
+            x = command.x;
+            y = command.y;
+            livesCount = command.livesCount;
+        } else {
+            float dx = command.x - x;
+            float dy = command.y - y;
+            float distance = (float) Math.sqrt(dx * dx + dy * dy);
+            float maxDistance = MAX_MOVE_PER_COMMAND * commandCount;
+            float scale = distance > maxDistance ? maxDistance / distance : 1;
+            x += dx * scale;
+            y += dy * scale;
+            // a client that claims a lost life in bounds keeps sending it until it has really fallen out
+            if (command.livesCount != null && command.livesCount < livesCount && y < FALL_OUT_Y) {
+                respawn();
+            }
+        }
+        direction = command.direction;
+        velX = command.velX;
+        velY = command.velY;
+        isShooting = command.isShooting;
     }
 
     /**
-     * Handle incoming PlayerPositionMessages.
+     * Take a life and move the player back to the spawn point above the map's center.
      */
-    public void handlePositionMessage(PlayerPositionMessage positionMessage) {
-        // handle position message
-        x = positionMessage.x;
-        y = positionMessage.y;
-        direction = positionMessage.direction;
-        name = positionMessage.name;
-
-        // reset damage after respawning
-        if (livesCount != null && !Objects.equals(positionMessage.livesCount, livesCount)) {
-            damage = 0;
+    private void respawn() {
+        MapCollision map = game.getMapCollision();
+        if (!Float.isNaN(map.getCenterX())) {
+            x = map.getCenterX();
+            y = map.getCenterY() + RESPAWN_HEIGHT;
         }
-        livesCount = positionMessage.livesCount;
-        velX = positionMessage.velX;
-        velY = positionMessage.velY;
-        isShooting = positionMessage.isShooting;
+        livesCount--;
+        // reset damage after respawning
+        damage = 0;
     }
 
     /**
-     * Calculate the force of the bullet hit and increment player's damage.
-     * @param bullet bullet shot by another player that hit 'this' player.
+     * Calculate the force of the bullet hit, increment player's damage and count the hit.
+     * @param bulletSpeed speed of the bullet shot by another player that hit 'this' player.
+     * @param weaponId id of the weapon that shot the bullet
      */
-    public float handleBeingHit(BulletData bullet, String characterName, boolean gunPickedUpEnemy) {
-        if (gunPickedUpEnemy) {
-            if (characterName.contains("Biden")) {
-                // sniper damage
-                this.damage += 8;
-            } else if (characterName.contains("Trump")) {
-                // smg damage
-                this.damage += 2;
-            } else if (characterName.contains("Obama")) {
-                // ar damage
-                this.damage += 3;
-            }
-        } else {
-            this.damage += 2;
-        }
+    public float handleBeingHit(float bulletSpeed, int weaponId) {
+        Weapon shooterWeapon = Weapons.get(weaponId);
+        this.damage += shooterWeapon.damage();
         // calculate force to apply to player and bullet moving direction
-        float force = bulletForce * (bullet.speedBullet > 0 ? 1 : -1);
+        float force = shooterWeapon.bulletForce() * (bulletSpeed > 0 ? 1 : -1);
         // damage increases force exponentially, at 100% damage the force is 4x stronger than at 0%
         // force *= 1 + (damage / x)
         force *= (1 + (float) damage / DAMAGE_INCREASES_PUSHBACK_COEFFICIENT);
+        hitForce = force;
+        hitSequence++;
         return force;
     }
 
     /**
-     * Used for changing the qualities shooting and bullets when picking up a gun.
+     * Switch to another weapon with full ammo, used when picking up a gun and when it runs out of ammo.
      */
-    public void changeGun(int ammoCount, int bulletForce, int bulletSpeed, float shootDelay) {
-        this.ammoCount = ammoCount;
-        this.bulletForce = bulletForce;
-        this.bulletSpeed = bulletSpeed;
-        this.shootDelay = shootDelay;
+    public void pickUpWeapon(Weapon weapon) {
+        this.weapon = weapon;
+        this.ammoCount = weapon.ammo();
+        this.ammoDelta = 0;
     }
 
     /**
      * Send gameStateMessage to the client of 'this' player.
-     * @param gameStateMessage contains info about all players, bullets and game time
+     * Only the changes since the last acknowledged snapshot are sent, unless the client has no usable baseline.
+     * Bullets that do not fit into the packet are sent in the following ticks.
+     * Game states are skipped on ticks that fall between the connection's snapshot rate.
+     * @param broadcast game state of this tick, serialized once for all players sharing a baseline
      */
-    public void sendGameState(GameStateMessage gameStateMessage) {
-        connection.sendUDP(gameStateMessage);
+    public void sendGameState(SnapshotBroadcast broadcast) {
+        if (!snapshotRate.shouldSend(broadcast.getSnapshot().tick, connection)) return;
+        GameStateMessage gameStateMessage = snapshotPacker.pack(broadcast, x, y);
+        GameStateMessage baseline = snapshotHistory.getBaseline(gameStateMessage.tick);
+        snapshotHistory.store(gameStateMessage);
+        if (baseline == null) {
+            connection.sendUDP(broadcast.getFullSnapshot(gameStateMessage));
+        } else {
+            connection.sendUDP(broadcast.getDelta(baseline, gameStateMessage));
+        }
     }
 
     /**
@@ -251,11 +344,20 @@ public class Player {
         connection.sendTCP(gunPickupMessage);
     }
 
+    public void sendPlayerNames(PlayerNamesMessage playerNamesMessage) {
+        connection.sendTCP(playerNamesMessage);
+    }
+
     /**
-     * End the game in case of a disconnect.
+     * Send bullets that have entered the player's interest area and known bullets that have been removed.
+     * @param tick current tick
+     * @param projectiles bullets of the game and ids of bullets removed during this tick
      */
-    public void onDisconnect() {
-        game.end();
+    public void sendProjectileEvents(int tick, ProjectileStore projectiles) {
+        ProjectileEventMessage projectileEventMessage = projectileInterest.update(tick, x, y, projectiles);
+        if (projectileEventMessage != null) {
+            connection.sendTCP(projectileEventMessage);
+        }
     }
 
 }
@@ -0,0 +1,121 @@
+package ee.taltech.americandream.server;
+
+import helper.BulletData;
+import helper.packet.ProjectileEventMessage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static helper.Constants.MAX_SNAPSHOT_BYTES;
+import static helper.Constants.SNAPSHOT_STALENESS_WEIGHT;
+
+/**
+ * Bullets that a single client has been told about.
+ * A bullet is sent when it first enters the player's InterestArea and removed when it hits something
+ * or flies out of bounds, the client keeps moving it in between.
+ * Like SnapshotPacker in snapshot mode, the events of a tick stay within MAX_SNAPSHOT_BYTES: the closest bullets
+ * and the ones that have waited the longest are sent first, the rest wait for the following ticks.
+ * Ticks without events do not allocate, the event message and its bullets are reused.
+ */
+public class ProjectileInterest {
+    // class id, tick and the lengths of the spawned list and the removed array
+    private static final int HEADER_BYTES = 16;
+    // a removed bulletId takes at most this many bytes
+    private static final int REMOVED_BYTES = 5;
+    // the spawned list writes the class id of every bullet in front of it
+    private static final int BULLET_CLASS_BYTES = 2;
+    // slot -> bulletId of the bullet in that slot that the client knows about, -1 if none
+    private int[] knownBullets = new int[0];
+    // slot -> bulletId of the bullet waiting to be sent and the tick it started waiting on
+    private int[] waitingBullets = new int[0];
+    private int[] waitingSince = new int[0];
+    // priority in the high bits and slot in the low bits, see SnapshotPacker
+    private long[] sortKeys = new long[0];
+    private final ProjectileEventMessage projectileEventMessage = new ProjectileEventMessage();
+    private final List<BulletData> bulletPool = new ArrayList<>();
+    private int[] removed = new int[16];
+    // removed bulletIds by length, the array is sent with its length
+    private final List<int[]> removedArrays = new ArrayList<>();
+
+    public ProjectileInterest() {
+        projectileEventMessage.spawned = new ArrayList<>();
+    }
+
+    /**
+     * Construct the events of this tick for the player.
+     * @param tick current tick
+     * @param x player position
+     * @param y player position
+     * @param projectiles all bullets in the game and the ones removed during this tick
+     * @return events, valid until the next update, or null if there is nothing new for the player
+     */
+    public ProjectileEventMessage update(int tick, float x, float y, ProjectileStore projectiles) {
+        if (knownBullets.length < projectiles.getSlotCount()) {
+            int oldLength = knownBullets.length;
+            int length = Math.max(projectiles.getSlotCount(), oldLength * 2);
+            knownBullets = Arrays.copyOf(knownBullets, length);
+            waitingBullets = Arrays.copyOf(waitingBullets, length);
+            waitingSince = Arrays.copyOf(waitingSince, length);
+            sortKeys = new long[length];
+            Arrays.fill(knownBullets, oldLength, length, -1);
+            Arrays.fill(waitingBullets, oldLength, length, -1);
+        }
+
+        // removals are always sent, they take their part of the budget first
+        int removedCount = 0;
+        for (int i = 0; i < projectiles.getRemovedCount(); i++) {
+            int slot = projectiles.getRemovedSlot(i);
+            int bulletId = projectiles.getRemovedId(i);
+            if (knownBullets[slot] != bulletId) continue;
+            knownBullets[slot] = -1;
+            if (removedCount == removed.length) {
+                removed = Arrays.copyOf(removed, removedCount * 2);
+            }
+            removed[removedCount++] = bulletId;
+        }
+
+        // lower priority is sent first
+        int candidateCount = 0;
+        for (int slot = 0; slot < projectiles.getSlotCount(); slot++) {
+            if (!projectiles.isActive(slot) || projectiles.isDisabled(slot)) continue;
+            int bulletId = projectiles.getBulletId(slot);
+            if (knownBullets[slot] == bulletId) continue;
+            if (!InterestArea.contains(x, y, projectiles.getX(slot), projectiles.getY(slot))) continue;
+            if (waitingBullets[slot] != bulletId) {
+                waitingBullets[slot] = bulletId;
+                waitingSince[slot] = tick;
+            }
+            float distance = Math.abs(projectiles.getX(slot) - x) + Math.abs(projectiles.getY(slot) - y);
+            float priority = distance - (tick - waitingSince[slot]) * SNAPSHOT_STALENESS_WEIGHT;
+            sortKeys[candidateCount++] = SnapshotPacker.sortKey(priority, slot);
+        }
+        Arrays.sort(sortKeys, 0, candidateCount);
+
+        List<BulletData> spawned = projectileEventMessage.spawned;
+        spawned.clear();
+        int budget = MAX_SNAPSHOT_BYTES - HEADER_BYTES - removedCount * REMOVED_BYTES;
+        for (int c = 0; c < candidateCount; c++) {
+            int slot = (int) sortKeys[c];
+            if (spawned.size() == bulletPool.size()) {
+                bulletPool.add(new BulletData());
+            }
+            BulletData bullet = projectiles.writeBulletData(slot, bulletPool.get(spawned.size()));
+            int size = SerializedMessage.sizeOf(bullet) + BULLET_CLASS_BYTES;
+            if (size > budget) continue;
+            budget -= size;
+            knownBullets[slot] = bullet.bulletId;
+            waitingBullets[slot] = -1;
+            spawned.add(bullet);
+        }
+        if (spawned.isEmpty() && removedCount == 0) return null;
+
+        projectileEventMessage.tick = tick;
+        while (removedArrays.size() <= removedCount) {
+            removedArrays.add(new int[removedArrays.size()]);
+        }
+        projectileEventMessage.removed = removedArrays.get(removedCount);
+        System.arraycopy(removed, 0, projectileEventMessage.removed, 0, removedCount);
+        return projectileEventMessage;
+    }
+}
@@ -0,0 +1,225 @@
+package ee.taltech.americandream.server;
+
+import helper.BulletData;
+
+import java.util.Arrays;
+
+import static helper.Constants.BOUNDS;
+import static helper.Constants.PROJECTILE_STORE_CAPACITY;
+import static helper.Constants.UFO_ENTITY_ID;
+
+/**
+ * All bullets of a game, stored as parallel primitive arrays indexed by slot.
+ * Slots of removed bullets are put on a free list and reused by the next shots, arrays only grow
+ * when more bullets are alive at once than ever before.
+ * Iterate with: for (int slot = 0; slot < getSlotCount(); slot++) if (isActive(slot)) ...
+ */
+public class ProjectileStore {
+    private float[] xs;
+    private float[] ys;
+    private float[] speeds;
+    // entityId of the shooter, UFO_ENTITY_ID for UFO bullets
+    private int[] owners;
+    private int[] bulletIds;
+    private boolean[] active;
+    // has hit something, removed by the next update
+    private boolean[] disabled;
+    // id of the weapon that shot the bullet, see Weapons
+    private int[] weapons;
+    // slots below slotCount that are free, used as a stack
+    private int[] freeSlots;
+    private int freeCount = 0;
+    // every slot at or above slotCount is free
+    private int slotCount = 0;
+    private int activeCount = 0;
+    private int nextBulletId = 0;
+    // ids and slots of bullets removed since the last clearRemoved
+    private int[] removedIds = new int[16];
+    private int[] removedSlots = new int[16];
+    private int removedCount = 0;
+
+    public ProjectileStore() {
+        this(PROJECTILE_STORE_CAPACITY);
+    }
+
+    public ProjectileStore(int capacity) {
+        xs = new float[capacity];
+        ys = new float[capacity];
+        speeds = new float[capacity];
+        owners = new int[capacity];
+        bulletIds = new int[capacity];
+        active = new boolean[capacity];
+        disabled = new boolean[capacity];
+        weapons = new int[capacity];
+        freeSlots = new int[capacity];
+    }
+
+    /**
+     * Add a bullet and give it an id that is unique in the game.
+     * @param speed horizontal movement per tick, negative to the left
+     * @param weapon id of the weapon that shot the bullet
+     * @return slot of the bullet
+     */
+    public int spawn(int owner, float x, float y, float speed, int weapon) {
+        int slot;
+        if (freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        } else {
+            if (slotCount == xs.length) grow();
+            slot = slotCount++;
+        }
+        xs[slot] = x;
+        ys[slot] = y;
+        speeds[slot] = speed;
+        owners[slot] = owner;
+        bulletIds[slot] = nextBulletId++;
+        active[slot] = true;
+        disabled[slot] = false;
+        weapons[slot] = weapon;
+        activeCount++;
+        return slot;
+    }
+
+    /**
+     * Move all bullets and remove the ones that have hit something or flown out of bounds.
+     * A bullet is out of bounds when it is further than BOUNDS from its shooter horizontally.
+     * @param ownerXs x coordinate of each player by entityId
+     * @param ufoX x coordinate of the UFO
+     */
+    public void update(float[] ownerXs, float ufoX) {
+        for (int slot = 0; slot < slotCount; slot++) {
+            if (!active[slot]) continue;
+            if (disabled[slot]) {
+                // reported as removed when it hit
+                free(slot);
+                continue;
+            }
+            float x = xs[slot] + speeds[slot];
+            xs[slot] = x;
+            float ownerX = owners[slot] == UFO_ENTITY_ID ? ufoX : ownerXs[owners[slot]];
+            if (x < ownerX - BOUNDS || x > ownerX + BOUNDS) {
+                addRemoved(slot);
+                free(slot);
+            }
+        }
+    }
+
+    /**
+     * Mark a bullet that has hit something. It is reported as removed immediately and freed by the next update.
+     */
+    public void disable(int slot) {
+        if (disabled[slot]) return;
+        disabled[slot] = true;
+        addRemoved(slot);
+    }
+
+    private void free(int slot) {
+        active[slot] = false;
+        activeCount--;
+        freeSlots[freeCount++] = slot;
+    }
+
+    private void addRemoved(int slot) {
+        if (removedCount == removedIds.length) {
+            removedIds = Arrays.copyOf(removedIds, removedCount * 2);
+            removedSlots = Arrays.copyOf(removedSlots, removedCount * 2);
+        }
+        removedIds[removedCount] = bulletIds[slot];
+        removedSlots[removedCount] = slot;
+        removedCount++;
+    }
+
+    private void grow() {
+        int capacity = Math.max(16, xs.length * 2);
+        xs = Arrays.copyOf(xs, capacity);
+        ys = Arrays.copyOf(ys, capacity);
+        speeds = Arrays.copyOf(speeds, capacity);
+        owners = Arrays.copyOf(owners, capacity);
+        bulletIds = Arrays.copyOf(bulletIds, capacity);
+        active = Arrays.copyOf(active, capacity);
+        disabled = Arrays.copyOf(disabled, capacity);
+        weapons = Arrays.copyOf(weapons, capacity);
+        freeSlots = Arrays.copyOf(freeSlots, capacity);
+    }
+
+    /**
+     * Forget the bullets removed during the tick, called once they have been sent to the clients.
+     */
+    public void clearRemoved() {
+        removedCount = 0;
+    }
+
+    /**
+     * Copy the bullet into a BulletData used for messages.
+     * @param bullet reused BulletData that is overwritten
+     * @return the given BulletData
+     */
+    public BulletData writeBulletData(int slot, BulletData bullet) {
+        bullet.ownerId = owners[slot];
+        bullet.bulletId = bulletIds[slot];
+        bullet.x = xs[slot];
+        bullet.y = ys[slot];
+        bullet.speedBullet = speeds[slot];
+        bullet.isDisabled = disabled[slot];
+        bullet.shotWithGun = weapons[slot] != Weapons.DEFAULT_ID;
+        return bullet;
+    }
+
+    /**
+     * @return upper bound of used slots, every slot at or above it is free
+     */
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getActiveCount() {
+        return activeCount;
+    }
+
+    public boolean isActive(int slot) {
+        return active[slot];
+    }
+
+    public boolean isDisabled(int slot) {
+        return disabled[slot];
+    }
+
+    public float getX(int slot) {
+        return xs[slot];
+    }
+
+    public float getY(int slot) {
+        return ys[slot];
+    }
+
+    public float getSpeed(int slot) {
+        return speeds[slot];
+    }
+
+    public int getOwner(int slot) {
+        return owners[slot];
+    }
+
+    public int getBulletId(int slot) {
+        return bulletIds[slot];
+    }
+
+    public int getWeapon(int slot) {
+        return weapons[slot];
+    }
+
+    public int getRemovedCount() {
+        return removedCount;
+    }
+
+    public int getRemovedId(int index) {
+        return removedIds[index];
+    }
+
+    /**
+     * Slot the removed bullet had, it may already be reused by a new bullet.
+     */
+    public int getRemovedSlot(int index) {
+        return removedSlots[index];
+    }
+}
@@ -0,0 +1,57 @@
+package ee.taltech.americandream.server;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Output;
+import com.esotericsoftware.kryonet.KryoSerialization;
+
+import static helper.Constants.OBJECT_BUFFER_SIZE;
+
+/**
+ * Message that has already been serialized, written to connections by BroadcastSerialization as it is.
+ * The buffer is reused by the next write, connections copy the bytes when the message is sent.
+ */
+public class SerializedMessage {
+    // Kryo is not thread safe, so there is one per MatchScheduler worker thread (or per game thread in the
+    // other threading modes). Games move between workers when they are stolen, so a game must not keep
+    // the thread's Kryo or OUTPUT buffer, sizeOf only returns a length for that reason.
+    private static final ThreadLocal<Kryo> KRYO = ThreadLocal.withInitial(() -> {
+        // same configuration as the server's KryoSerialization, including the framework messages
+        Kryo kryo = new KryoSerialization().getKryo();
+        GameServer.registerClasses(kryo);
+        return kryo;
+    });
+    private static final ThreadLocal<Output> OUTPUT = ThreadLocal.withInitial(() -> new Output(OBJECT_BUFFER_SIZE, -1));
+
+    private final Output output = new Output(OBJECT_BUFFER_SIZE, -1);
+
+    /**
+     * Serialize the message the same way KryoSerialization would, replacing the previous bytes.
+     * @return this
+     */
+    public SerializedMessage write(Object message) {
+        output.clear();
+        KRYO.get().writeClassAndObject(output, message);
+        return this;
+    }
+
+    /**
+     * Serialized size of an object written as a field of another message, without its class id.
+     */
+    public static int sizeOf(Object object) {
+        Output output = OUTPUT.get();
+        output.clear();
+        KRYO.get().writeObject(output, object);
+        return output.position();
+    }
+
+    /**
+     * @return buffer holding the message in its first getLength() bytes
+     */
+    public byte[] getBytes() {
+        return output.getBuffer();
+    }
+
+    public int getLength() {
+        return output.position();
+    }
+}
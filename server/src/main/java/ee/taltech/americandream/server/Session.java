@@ -0,0 +1,13 @@
+package ee.taltech.americandream.server;
+
+import com.esotericsoftware.kryonet.Connection;
+
+/**
+ * Lobby or match that receives the messages of the connections attached to it by the MessageRouter.
+ */
+public interface Session {
+
+    void received(Connection connection, Object message);
+
+    void disconnected(Connection connection);
+}
@@ -0,0 +1,133 @@
+package ee.taltech.americandream.server;
+
+import helper.BulletData;
+import helper.SnapshotDelta;
+import helper.packet.GameStateMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Game state of a single tick, serialized at most once per distinct message.
+ * Players that have acknowledged the same baseline receive the same delta bytes,
+ * players without a baseline receive the same full snapshot bytes.
+ * Snapshots that have been packed for a single player are serialized separately.
+ * Every player acknowledges its own baseline, so deltas are only shared by players whose latest
+ * acknowledged snapshot is the same one. How often that happens is counted by getMessageCount and
+ * getSerializedCount and reported by SnapshotEncodingBenchmark.
+ * A game reuses one broadcast for every tick, the serialized messages are valid until the next reset.
+ */
+public class SnapshotBroadcast {
+    private GameStateMessage snapshot;
+    private final SerializedMessage fullSnapshot = new SerializedMessage();
+    private boolean fullSnapshotWritten;
+    // baselines are compared by identity because packed snapshots share ticks
+    private final List<GameStateMessage> deltaBaselines = new ArrayList<>();
+    private final List<SerializedMessage> deltas = new ArrayList<>();
+    private int deltaCount;
+    // snapshots packed for a single player are sent right away, so they share one buffer
+    private final SerializedMessage packedMessage = new SerializedMessage();
+    private final SnapshotDelta snapshotDelta = new SnapshotDelta();
+    private int[] bulletSizes = new int[0];
+    private boolean bulletSizesMeasured;
+    // messages handed out for sending and serializations done for them, over all ticks
+    private long messageCount;
+    private long serializedCount;
+
+    /**
+     * Start broadcasting the snapshot of a new tick, forgetting the previous one.
+     */
+    public void reset(GameStateMessage snapshot) {
+        this.snapshot = snapshot;
+        fullSnapshotWritten = false;
+        deltaCount = 0;
+        bulletSizesMeasured = false;
+    }
+
+    public GameStateMessage getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Serialized size of the complete snapshot in bytes.
+     */
+    public int getSize() {
+        return writeFullSnapshot(snapshot).getLength();
+    }
+
+    /**
+     * Serialized size of each bullet in the snapshot's bullet list in bytes, only the first
+     * snapshot.bulletData.size() entries are used.
+     */
+    public int[] getBulletSizes() {
+        if (!bulletSizesMeasured) {
+            bulletSizesMeasured = true;
+            List<BulletData> bullets = snapshot.bulletData;
+            if (bulletSizes.length < bullets.size()) {
+                bulletSizes = new int[Math.max(bullets.size(), bulletSizes.length * 2)];
+            }
+            for (int i = 0; i < bullets.size(); i++) {
+                bulletSizes[i] = SerializedMessage.sizeOf(bullets.get(i));
+            }
+        }
+        return bulletSizes;
+    }
+
+    /**
+     * @param current this tick's snapshot or a snapshot packed for a single player
+     */
+    public SerializedMessage getFullSnapshot(GameStateMessage current) {
+        messageCount++;
+        return writeFullSnapshot(current);
+    }
+
+    private SerializedMessage writeFullSnapshot(GameStateMessage current) {
+        if (current != snapshot) {
+            serializedCount++;
+            return packedMessage.write(current);
+        }
+        if (!fullSnapshotWritten) {
+            fullSnapshotWritten = true;
+            serializedCount++;
+            fullSnapshot.write(snapshot);
+        }
+        return fullSnapshot;
+    }
+
+    /**
+     * @param baseline snapshot acknowledged by the player
+     * @param current this tick's snapshot or a snapshot packed for a single player
+     */
+    public SerializedMessage getDelta(GameStateMessage baseline, GameStateMessage current) {
+        messageCount++;
+        if (current != snapshot) {
+            serializedCount++;
+            return packedMessage.write(snapshotDelta.encode(baseline, current));
+        }
+        for (int i = 0; i < deltaCount; i++) {
+            if (deltaBaselines.get(i) == baseline) return deltas.get(i);
+        }
+        if (deltaCount == deltas.size()) {
+            deltaBaselines.add(null);
+            deltas.add(new SerializedMessage());
+        }
+        deltaBaselines.set(deltaCount, baseline);
+        SerializedMessage delta = deltas.get(deltaCount++);
+        serializedCount++;
+        return delta.write(snapshotDelta.encode(baseline, snapshot));
+    }
+
+    /**
+     * @return number of full snapshots and deltas handed out for sending
+     */
+    public long getMessageCount() {
+        return messageCount;
+    }
+
+    /**
+     * @return number of messages serialized, including full snapshots only measured for packing
+     */
+    public long getSerializedCount() {
+        return serializedCount;
+    }
+}
@@ -0,0 +1,42 @@
+package ee.taltech.americandream.server;
+
+import helper.packet.GameStateMessage;
+
+import static helper.Constants.SNAPSHOT_HISTORY_SIZE;
+
+public class SnapshotHistory {
+    private final GameStateMessage[] sentSnapshots = new GameStateMessage[SNAPSHOT_HISTORY_SIZE];
+    private int lastAckedTick = -1;
+
+    /**
+     * Register the latest snapshot tick that the client has received.
+     */
+    public void acknowledge(int tick) {
+        if (tick > lastAckedTick) {
+            lastAckedTick = tick;
+        }
+    }
+
+    /**
+     * Remember a snapshot that has been sent to the client. The snapshot must not be modified afterward.
+     */
+    public void store(GameStateMessage snapshot) {
+        sentSnapshots[snapshot.tick % SNAPSHOT_HISTORY_SIZE] = snapshot;
+    }
+
+    /**
+     * Find the latest acknowledged snapshot that is still in the history.
+     * @param currentTick tick of the snapshot that is about to be sent
+     * @return baseline snapshot or null if a full snapshot has to be sent
+     */
+    public GameStateMessage getBaseline(int currentTick) {
+        if (lastAckedTick < 0 || currentTick - lastAckedTick >= SNAPSHOT_HISTORY_SIZE || lastAckedTick >= currentTick) {
+            return null;
+        }
+        GameStateMessage baseline = sentSnapshots[lastAckedTick % SNAPSHOT_HISTORY_SIZE];
+        if (baseline == null || baseline.tick != lastAckedTick) {
+            return null;
+        }
+        return baseline;
+    }
+}
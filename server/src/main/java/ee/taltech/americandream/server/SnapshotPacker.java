@@ -0,0 +1,133 @@
+package ee.taltech.americandream.server;
+
+import helper.BulletData;
+import helper.IntIntMap;
+import helper.packet.GameStateMessage;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static helper.Constants.MAX_SNAPSHOT_BYTES;
+import static helper.Constants.SNAPSHOT_STALENESS_WEIGHT;
+
+/**
+ * Keeps the snapshots sent to a single player within MAX_SNAPSHOT_BYTES.
+ * Bullets outside the player's InterestArea are left out.
+ * Snapshots only carry bullets when PROJECTILE_EVENTS is off, with events the bullets are budgeted
+ * and filtered by ProjectileInterest instead and this only checks the size of the player states.
+ * When there are too many bullets, the ones closest to the player and the ones that
+ * have not been sent for the longest time are sent first, the rest wait for the next tick.
+ * Buffers and packed snapshots are reused, packing a snapshot without bullets does not allocate.
+ */
+public class SnapshotPacker {
+    // bulletId -> tick the bullet was last sent to the player, or first seen if it has not been sent yet
+    private IntIntMap lastSentTicks = new IntIntMap();
+    // filled from lastSentTicks every pack and swapped with it
+    private IntIntMap updatedSentTicks = new IntIntMap();
+    private final SnapshotPool packedSnapshots = new SnapshotPool(0);
+    // indexes of the bullets in the interest area
+    private int[] candidates = new int[0];
+    // priority in the high bits and index in the low bits, so that sorting does not box
+    private long[] sortKeys = new long[0];
+    private boolean[] included = new boolean[0];
+
+    /**
+     * Fit the snapshot into the byte budget.
+     * @param broadcast this tick's game state
+     * @param x position of the player receiving the snapshot
+     * @param y position
+     * @return the snapshot itself if it fits and all bullets are of interest, otherwise a copy with only the most relevant bullets
+     */
+    public GameStateMessage pack(SnapshotBroadcast broadcast, float x, float y) {
+        GameStateMessage snapshot = broadcast.getSnapshot();
+        List<BulletData> bullets = snapshot.bulletData;
+        // only bullets can be left out, without them the size is not measured and the full snapshot is not serialized
+        if (bullets.isEmpty()) {
+            rememberSent(bullets, snapshot.tick);
+            return snapshot;
+        }
+        if (candidates.length < bullets.size()) {
+            int length = Math.max(bullets.size(), candidates.length * 2);
+            candidates = new int[length];
+            sortKeys = new long[length];
+            included = new boolean[length];
+        }
+        int candidateCount = 0;
+        for (int i = 0; i < bullets.size(); i++) {
+            BulletData bullet = bullets.get(i);
+            if (InterestArea.contains(x, y, bullet.x, bullet.y)) candidates[candidateCount++] = i;
+        }
+        if (candidateCount == bullets.size() && broadcast.getSize() <= MAX_SNAPSHOT_BYTES) {
+            rememberSent(bullets, snapshot.tick);
+            return snapshot;
+        }
+
+        int[] bulletSizes = broadcast.getBulletSizes();
+        int bulletBytes = 0;
+        for (int i = 0; i < bullets.size(); i++) {
+            bulletBytes += bulletSizes[i];
+        }
+        int budget = MAX_SNAPSHOT_BYTES - (broadcast.getSize() - bulletBytes);
+        // lower priority is sent first
+        for (int c = 0; c < candidateCount; c++) {
+            BulletData bullet = bullets.get(candidates[c]);
+            int ticksSinceSent = snapshot.tick - lastSentTicks.get(bullet.bulletId, snapshot.tick);
+            float distance = Math.abs(bullet.x - x) + Math.abs(bullet.y - y);
+            float priority = distance - ticksSinceSent * SNAPSHOT_STALENESS_WEIGHT;
+            sortKeys[c] = sortKey(priority, candidates[c]);
+        }
+        Arrays.sort(sortKeys, 0, candidateCount);
+
+        Arrays.fill(included, 0, bullets.size(), false);
+        for (int c = 0; c < candidateCount; c++) {
+            int i = (int) sortKeys[c];
+            if (bulletSizes[i] > budget) continue;
+            budget -= bulletSizes[i];
+            included[i] = true;
+        }
+        GameStateMessage packed = packedSnapshots.get(snapshot.tick);
+        packed.gameTime = snapshot.gameTime;
+        packed.playerStates = snapshot.playerStates;
+        packed.ufoPlayerX = snapshot.ufoPlayerX;
+        packed.ufoPlayerY = snapshot.ufoPlayerY;
+        // keep the original order, so that unchanged bullets stay unchanged in the delta
+        for (int i = 0; i < bullets.size(); i++) {
+            if (included[i]) packed.bulletData.add(bullets.get(i));
+        }
+        rememberSent(bullets, packed.bulletData, snapshot.tick);
+        return packed;
+    }
+
+    /**
+     * Key that sorts by priority and then by index, sorting longs does not box.
+     * @param index non-negative index, kept in the low 32 bits
+     */
+    static long sortKey(float priority, int index) {
+        // float bits that sort the same way as the floats when compared as ints
+        int bits = Float.floatToIntBits(priority);
+        bits ^= (bits >> 31) & 0x7fffffff;
+        return ((long) bits << 32) | index;
+    }
+
+    private void rememberSent(List<BulletData> bullets, int tick) {
+        rememberSent(bullets, bullets, tick);
+    }
+
+    /**
+     * Update the last sent ticks and forget bullets that no longer exist.
+     */
+    private void rememberSent(List<BulletData> bullets, List<BulletData> sentBullets, int tick) {
+        if (bullets.isEmpty() && lastSentTicks.size() == 0) return;
+        IntIntMap updated = updatedSentTicks;
+        updated.clear();
+        for (int i = 0; i < bullets.size(); i++) {
+            int bulletId = bullets.get(i).bulletId;
+            updated.put(bulletId, lastSentTicks.get(bulletId, tick));
+        }
+        for (int i = 0; i < sentBullets.size(); i++) {
+            updated.put(sentBullets.get(i).bulletId, tick);
+        }
+        updatedSentTicks = lastSentTicks;
+        lastSentTicks = updated;
+    }
+}
@@ -0,0 +1,60 @@
+package ee.taltech.americandream.server;
+
+import helper.BulletData;
+import helper.PlayerState;
+import helper.packet.GameStateMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static helper.Constants.SNAPSHOT_HISTORY_SIZE;
+
+/**
+ * Game state messages allocated once and reused every SNAPSHOT_HISTORY_SIZE ticks.
+ * A snapshot is kept as a delta baseline for at most SNAPSHOT_HISTORY_SIZE ticks, so the message of a tick
+ * is only overwritten once no client can use it anymore. Bullets are taken from a pool per message.
+ */
+public class SnapshotPool {
+    private final GameStateMessage[] snapshots = new GameStateMessage[SNAPSHOT_HISTORY_SIZE];
+    // bullets owned by each message, the message's bulletData only contains the used ones
+    private final List<List<BulletData>> bulletPools = new ArrayList<>(SNAPSHOT_HISTORY_SIZE);
+
+    /**
+     * @param playerCount player states allocated per message, 0 if the messages share the player states of another snapshot
+     */
+    public SnapshotPool(int playerCount) {
+        for (int i = 0; i < SNAPSHOT_HISTORY_SIZE; i++) {
+            GameStateMessage snapshot = new GameStateMessage();
+            snapshot.tick = -1;
+            snapshot.playerStates = new PlayerState[playerCount];
+            for (int j = 0; j < playerCount; j++) {
+                snapshot.playerStates[j] = new PlayerState();
+            }
+            snapshot.bulletData = new ArrayList<>();
+            snapshots[i] = snapshot;
+            bulletPools.add(new ArrayList<>());
+        }
+    }
+
+    /**
+     * Take the message of a tick, its bullet list is empty and the other fields still hold an older tick's values.
+     */
+    public GameStateMessage get(int tick) {
+        GameStateMessage snapshot = snapshots[tick % SNAPSHOT_HISTORY_SIZE];
+        snapshot.tick = tick;
+        snapshot.bulletData.clear();
+        return snapshot;
+    }
+
+    /**
+     * Take an unused bullet of the tick's message. It is not added to the message's bullet list.
+     * @param index how many bullets of the message have been taken before during this tick
+     */
+    public BulletData getBullet(int tick, int index) {
+        List<BulletData> pool = bulletPools.get(tick % SNAPSHOT_HISTORY_SIZE);
+        if (index == pool.size()) {
+            pool.add(new BulletData());
+        }
+        return pool.get(index);
+    }
+}
@@ -0,0 +1,63 @@
+package ee.taltech.americandream.server;
+
+import com.esotericsoftware.kryonet.Connection;
+
+import static helper.Constants.*;
+
+/**
+ * Decides how often game states are sent to a single client, independent of the simulation tick rate.
+ * The rate is lowered one step when the connection's round trip time or input packet loss gets too high
+ * and raised back when the connection recovers. Available rates are listed in SNAPSHOT_RATES.
+ */
+public class SnapshotRate {
+    private int rateIndex = 0;
+    private int lastSentTick = -1;
+    private long lastEvaluationTime = System.currentTimeMillis();
+    // input messages since the last evaluation
+    private int receivedInputs = 0;
+    private int expectedInputs = 0;
+
+    /**
+     * Register an input message from the client. Every client tick sends one message,
+     * so a jump in the command sequence means the messages in between were lost.
+     * @param sequenceAdvance how much the latest command sequence moved forward, 0 for old or duplicate messages
+     */
+    public void inputReceived(int sequenceAdvance) {
+        receivedInputs++;
+        expectedInputs += sequenceAdvance;
+    }
+
+    /**
+     * Check whether a game state should be sent to the client on this tick.
+     * Re-evaluates the rate every SNAPSHOT_RATE_EVALUATION_INTERVAL milliseconds.
+     */
+    public boolean shouldSend(int tick, Connection connection) {
+        long now = System.currentTimeMillis();
+        if (now - lastEvaluationTime >= SNAPSHOT_RATE_EVALUATION_INTERVAL) {
+            lastEvaluationTime = now;
+            evaluate(connection);
+        }
+        int interval = Math.max(1, Math.round((float) TICK_RATE / SNAPSHOT_RATES[rateIndex]));
+        if (lastSentTick >= 0 && tick - lastSentTick < interval) {
+            return false;
+        }
+        lastSentTick = tick;
+        return true;
+    }
+
+    private void evaluate(Connection connection) {
+        int received = receivedInputs;
+        int expected = expectedInputs;
+        receivedInputs = 0;
+        expectedInputs = 0;
+        float loss = expected > 0 ? Math.max(0f, 1f - (float) received / expected) : 0f;
+        // Game pings the clients once per evaluation interval, -1 until the first ping has returned
+        int rtt = connection.getReturnTripTime();
+
+        if (rtt > SNAPSHOT_RATE_HIGH_RTT || loss > SNAPSHOT_RATE_HIGH_LOSS) {
+            rateIndex = Math.min(rateIndex + 1, SNAPSHOT_RATES.length - 1);
+        } else if (rtt < SNAPSHOT_RATE_LOW_RTT && loss < SNAPSHOT_RATE_LOW_LOSS) {
+            rateIndex = Math.max(rateIndex - 1, 0);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package ee.taltech.americandream.server;
+
+/**
+ * How games and players' message handling are run, chosen when the server starts.
+ */
+public enum ThreadingMode {
+    // games are ticked by the MatchScheduler worker pool, messages are handled on KryoNet's update thread
+    POOL,
+    // every game runs on its own platform thread
+    PLATFORM,
+    // every game and every player's message handling runs on its own virtual thread (JDK 21+)
+    VIRTUAL
+}
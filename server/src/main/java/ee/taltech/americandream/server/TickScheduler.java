@@ -0,0 +1,61 @@
+package ee.taltech.americandream.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static helper.Constants.MAX_CATCH_UP_TICKS;
+
+/**
+ * Runs ticks at a fixed rate on absolute deadlines of the monotonic clock.
+ * A tick that takes long only shortens the wait before the next one, so the rate does not drift.
+ * A late loop catches up by running the following ticks without waiting; when it is more than
+ * MAX_CATCH_UP_TICKS behind, the missed ticks are dropped and reported to the caller.
+ */
+public class TickScheduler {
+    private final long tickNanos;
+    private long nextTickTime;
+    private boolean started = false;
+    private boolean late = false;
+
+    public TickScheduler(int ticksPerSecond) {
+        this.tickNanos = TimeUnit.SECONDS.toNanos(1) / ticksPerSecond;
+    }
+
+    /**
+     * Wait until the deadline of the next tick. Returns immediately if the deadline has already passed.
+     * @return number of ticks dropped before the next one, their time has passed without running them
+     * @throws InterruptedException if the game thread is interrupted while waiting
+     */
+    public long waitForNextTick() throws InterruptedException {
+        long now = System.nanoTime();
+        // deadlines start from the end of the first tick
+        if (!started) {
+            started = true;
+            nextTickTime = now;
+        }
+        nextTickTime += tickNanos;
+        late = now > nextTickTime;
+        if (late) {
+            long behind = (now - nextTickTime) / tickNanos;
+            if (behind > MAX_CATCH_UP_TICKS) {
+                // give up on the oldest missed ticks instead of running them all at once
+                long dropped = behind - MAX_CATCH_UP_TICKS;
+                nextTickTime += dropped * tickNanos;
+                return dropped;
+            }
+            return 0;
+        }
+        while ((now = System.nanoTime()) < nextTickTime) {
+            LockSupport.parkNanos(nextTickTime - now);
+            if (Thread.interrupted()) throw new InterruptedException();
+        }
+        return 0;
+    }
+
+    /**
+     * Whether the last tick finished after the deadline of the next one.
+     */
+    public boolean isLate() {
+        return late;
+    }
+}
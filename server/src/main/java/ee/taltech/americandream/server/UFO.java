@@ -1,14 +1,9 @@
 package ee.taltech.americandream.server;
 
-import helper.BulletData;
-
-import java.util.ArrayList;
-import java.util.List;
-
 import static helper.Constants.*;
 
 public class UFO {
-    private final List<BulletData> bullets;
+    private final Game game;
     private float x;
     private float y;
     private float velocity = 100;
@@ -23,14 +18,10 @@ public class UFO {
      * It will slowly move towards the closest player and randomly shoot bullets. The UFO doesn't have any lives
      * and can't fall off the platforms.
      */
-    public UFO(float x, float y) {
+    public UFO(float x, float y, Game game) {
+        this.game = game;
         this.x = x;
         this.y = y;
-        this.bullets = new ArrayList<>();
-    }
-
-    public List<BulletData> getBullets() {
-        return bullets;
     }
 
     public float getX() {
@@ -50,7 +41,7 @@ public class UFO {
         Player closestPlayer = null;
         float closestDistance = Float.MAX_VALUE;
         for (Player player : players) {
-            float distance = (float) Math.sqrt(Math.pow(player.getState().x - x, 2) + Math.pow(player.getState().y - y, 2));
+            float distance = (float) Math.sqrt(Math.pow(player.getX() - x, 2) + Math.pow(player.getY() - y, 2));
             if (distance < closestDistance && !player.getName().equals("AI")) {
                 closestDistance = distance;
                 closestPlayer = player;
@@ -67,29 +58,18 @@ public class UFO {
         velocity = closestDistance;
 
         // move towards player
-        float angle = (float) Math.atan2(closestPlayer.getState().y - y, closestPlayer.getState().x - x);
+        float angle = (float) Math.atan2(closestPlayer.getY() - y, closestPlayer.getX() - x);
 
         x += (float) (Math.cos(angle) * velocity * delta);
         y += (float) (Math.sin(angle) * velocity * delta);
 
         // shoot a bullet if countdown is over
         if (shootCountdown >= ((gameTime / 60) + 0.075f) / UFO_SHOOTING_INTERVAL) {
-            BulletData bullet = new BulletData();
-            bullet.x = x;
-            bullet.y = y;
-            bullet.speedBullet = bulletSpeed * (closestPlayer.getState().x < x ? -1 : 1);
-            bullet.id = -1;
-            bullet.name = "UFO";
-            bullets.add(bullet);
+            float speed = bulletSpeed * (closestPlayer.getX() < x ? -1 : 1);
+            game.getProjectiles().spawn(UFO_ENTITY_ID, x, y, speed, Weapons.DEFAULT_ID);
             shootCountdown = 0;
         }
 
-        // update bullets
-        bullets.forEach(bullet -> bullet.x += bullet.speedBullet);
-
-        // removing bullets
-        bullets.removeIf(bullet -> bullet.x < x - BOUNDS || bullet.x > x + BOUNDS);
-
         if (Math.abs(knockback) < 1) {
             // if knockback is small enough, set it to 0
             knockback = 0;
@@ -107,7 +87,7 @@ public class UFO {
      * UFO can be hit by bullets just like a regular player.
      * Except it doesn't have a damage percentage which means that the applied force is constant.
      */
-    public void bulletHit(BulletData bullet) {
-        knockback = (bullet.speedBullet < 0 ? -1 : 1) * bulletForce;
+    public void bulletHit(float bulletSpeed) {
+        knockback = (bulletSpeed < 0 ? -1 : 1) * bulletForce;
     }
 }
@@ -0,0 +1,37 @@
+package ee.taltech.americandream.server;
+
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Access to virtual threads through reflection, the server compiles on JDK 17 and uses them when it runs on JDK 21.
+ */
+public class VirtualThreads {
+    public static final String UNSUPPORTED_MESSAGE =
+            "Virtual threads require JDK 21 or newer, this is JDK " + System.getProperty("java.version");
+    private static final ThreadFactory FACTORY = createFactory();
+
+    public static boolean isSupported() {
+        return FACTORY != null;
+    }
+
+    /**
+     * Factory for unstarted virtual threads.
+     * @throws UnsupportedOperationException when the JDK has no virtual threads
+     */
+    public static ThreadFactory factory() {
+        if (FACTORY == null) {
+            throw new UnsupportedOperationException(UNSUPPORTED_MESSAGE);
+        }
+        return FACTORY;
+    }
+
+    private static ThreadFactory createFactory() {
+        try {
+            // Thread.ofVirtual().factory()
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            return (ThreadFactory) Class.forName("java.lang.Thread$Builder").getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package ee.taltech.americandream.server;
+
+/**
+ * Stats of a weapon, one row of weapons.csv.
+ * @param id index in the weapon table, carried by every bullet shot with the weapon
+ * @param character players of this character get the weapon from a gunbox, empty for the default weapon
+ * @param ammo bullets when the weapon is taken, also the limit that ammo regenerates up to
+ * @param ammoRegenTime seconds per regenerated bullet, 0 for no regeneration
+ * @param bulletSpeed pixels per tick
+ * @param shootDelay seconds between shots
+ * @param damage added to the damage of a player hit by the weapon's bullet
+ */
+public record Weapon(int id, String name, String character, int ammo, float ammoRegenTime, float bulletForce,
+                     float bulletSpeed, float shootDelay, int damage) {
+}
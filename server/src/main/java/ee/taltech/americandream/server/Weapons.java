@@ -0,0 +1,91 @@
+package ee.taltech.americandream.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Weapon table loaded once from weapons.csv. Weapons are looked up by id, so resolving a bullet hit
+ * is an array access. Adding a weapon only needs a new row in the file.
+ */
+public class Weapons {
+    // the weapon every player starts with
+    public static final int DEFAULT_ID = 0;
+    private static final Weapon[] WEAPONS = load();
+
+    /**
+     * @param id weapon id carried by a bullet
+     */
+    public static Weapon get(int id) {
+        return WEAPONS[id];
+    }
+
+    public static Weapon getDefault() {
+        return WEAPONS[DEFAULT_ID];
+    }
+
+    /**
+     * Find the gun that a character gets from a gunbox, resolved once when the player's name is known.
+     * @param playerName name of the player, the character followed by '_' and the client id
+     * @return id of the character's weapon, -1 if the character has no gun
+     */
+    public static int gunIdOf(String playerName) {
+        if (playerName == null) return -1;
+        int separator = playerName.indexOf('_');
+        String character = separator < 0 ? playerName : playerName.substring(0, separator);
+        for (Weapon weapon : WEAPONS) {
+            if (!weapon.character().isEmpty() && weapon.character().equals(character)) {
+                return weapon.id();
+            }
+        }
+        return -1;
+    }
+
+    private static Weapon[] load() {
+        try (InputStream inputStream = Weapons.class.getResourceAsStream("/weapons.csv")) {
+            if (inputStream == null) {
+                throw new IllegalStateException("weapons.csv not found");
+            }
+            return parse(new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8)));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Read the weapon table. Rows must be in id order starting from 0, lines starting with # are comments.
+     * @throws IllegalStateException if the ids are not in order or there are no weapons
+     * @throws NumberFormatException if a number column can't be parsed
+     */
+    static Weapon[] parse(BufferedReader reader) throws IOException {
+        List<Weapon> weapons = new ArrayList<>();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] columns = line.split(",", -1);
+            Weapon weapon = new Weapon(
+                    Integer.parseInt(columns[0].trim()),
+                    columns[1].trim(),
+                    columns[2].trim(),
+                    Integer.parseInt(columns[3].trim()),
+                    Float.parseFloat(columns[4].trim()),
+                    Float.parseFloat(columns[5].trim()),
+                    Float.parseFloat(columns[6].trim()),
+                    Float.parseFloat(columns[7].trim()),
+                    Integer.parseInt(columns[8].trim()));
+            if (weapon.id() != weapons.size()) {
+                throw new IllegalStateException("weapons.csv: expected id " + weapons.size() + " for " + weapon.name());
+            }
+            weapons.add(weapon);
+        }
+        if (weapons.isEmpty()) {
+            throw new IllegalStateException("weapons.csv has no weapons");
+        }
+        return weapons.toArray(new Weapon[0]);
+    }
+}
@@ -1,11 +1,28 @@
 package helper;
 
 public class BulletData {
-    public int id;
-    public String name;
+    // entityId of the player who shot the bullet, UFO_ENTITY_ID for UFO bullets
+    public int ownerId;
+    // unique per game instance, used for matching bullets between snapshots
+    public int bulletId;
     public float x, y;
 
     public float speedBullet;
     public boolean isDisabled;
     public boolean shotWithGun;
+
+    /**
+     * Copy the bullet, so that the copy isn't affected by the bullet moving in the following ticks.
+     */
+    public BulletData copy() {
+        BulletData copy = new BulletData();
+        copy.ownerId = ownerId;
+        copy.bulletId = bulletId;
+        copy.x = x;
+        copy.y = y;
+        copy.speedBullet = speedBullet;
+        copy.isDisabled = isDisabled;
+        copy.shotWithGun = shotWithGun;
+        return copy;
+    }
 }
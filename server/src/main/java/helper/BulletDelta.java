@@ -0,0 +1,8 @@
+package helper;
+
+public class BulletDelta {
+    // bullets only move on the x-axis and can get disabled, other fields never change after shooting
+    public int bulletId;
+    public float x;
+    public boolean isDisabled;
+}
@@ -4,7 +4,28 @@ import java.awt.*;
 
 public class Constants {
     public static final int[] PORTS = new int[]{8080, 8081};
+    // KryoNet defaults, a single message must fit into the object buffer
+    public static final int WRITE_BUFFER_SIZE = 16384;
+    public static final int OBJECT_BUFFER_SIZE = 2048;
+    // largest game state that is sent in one UDP packet, stays below the usual 1500 byte MTU
+    public static final int MAX_SNAPSHOT_BYTES = 1200;
+    // how many pixels closer a bullet is considered to be for every tick it has waited to be sent
+    public static final float SNAPSHOT_STALENESS_WEIGHT = 50f;
+    // bullets further away from a player than this are not sent to the player's client, in both PROJECTILE_EVENTS modes
+    public static final float INTEREST_HALF_WIDTH = 1200f;
+    public static final float INTEREST_HALF_HEIGHT = 800f;
     public static final int TICK_RATE = 60;
+    // how many late ticks are run back to back before the rest are dropped
+    public static final int MAX_CATCH_UP_TICKS = 5;
+    // game states sent to a client per second, the first rate is used on good connections
+    public static final int[] SNAPSHOT_RATES = new int[]{60, 30, 20};
+    // in milliseconds
+    public static final int SNAPSHOT_RATE_EVALUATION_INTERVAL = 1000;
+    // a worse connection lowers the snapshot rate, a better one raises it, in milliseconds and fraction of lost inputs
+    public static final int SNAPSHOT_RATE_HIGH_RTT = 150;
+    public static final int SNAPSHOT_RATE_LOW_RTT = 80;
+    public static final float SNAPSHOT_RATE_HIGH_LOSS = 0.05f;
+    public static final float SNAPSHOT_RATE_LOW_LOSS = 0.01f;
     public static final int GAME_DURATION = 300;
     public static final float BOUNDS = 1000f;
     public static final int PLAYER_HEIGHT = 64;
@@ -23,5 +44,47 @@ public class Constants {
     public static final Dimension UFO_SIZE = new Dimension(60, 60);
 
     public static final float GUNBOX_SPAWN_DELAY = 15000; // in milliseconds
+    // gunboxes fall from this high above the platform they land on, or from GUNBOX_SPAWN_Y if the map has no platforms
+    public static final float GUNBOX_DROP_HEIGHT = 200f;
+    public static final float GUNBOX_SPAWN_Y = 1500f;
+    // gunboxes land at least this far from the edge of a platform
+    public static final float GUNBOX_EDGE_MARGIN = 32f;
+
+    // how many sent snapshots are kept per client for delta compression (~0.5 s at 60 ticks per second)
+    public static final int SNAPSHOT_HISTORY_SIZE = 32;
+    // positions are sent as fixed-point numbers, 2 = half a pixel precision
+    public static final float POSITION_PRECISION = 2f;
+    // velocities and bullet speeds are sent with two decimal places
+    public static final float VELOCITY_PRECISION = 100f;
+    // entity ids are sent as a single byte, players use 0..n-1
+    public static final int UFO_ENTITY_ID = -1;
+    // send bullets once as spawn/remove events instead of in every GameStateMessage
+    // events: ProjectileInterest sends the bullets, off: SnapshotPacker packs them into each snapshot
+    // both keep the bullets of a tick within MAX_SNAPSHOT_BYTES
+    public static final boolean PROJECTILE_EVENTS = true;
+    // server limits player movement instead of trusting the positions sent by clients
+    public static final boolean AUTHORITATIVE_MOVEMENT = true;
+    // Box2D moves a body at most 2 meters per step, clients step once per command (2 * PPM)
+    public static final float MAX_MOVE_PER_COMMAND = 64f;
+    // players below this have fallen out of the map and lose a life, same as the client's -BOUNDS
+    public static final float FALL_OUT_Y = -1400f;
+    // players respawn this high above the map's center point, the client's 30 meters (30 * PPM)
+    public static final float RESPAWN_HEIGHT = 960f;
+    // player positions kept for lag compensation, in ticks
+    public static final int HITBOX_HISTORY_SIZE = 32;
+    // hits are checked at most this many ticks in the past (200 ms)
+    public static final int MAX_REWIND_TICKS = 12;
+    // clients render other players this many ticks in the past, must match the client's INTERPOLATION_DELAY_TICKS
+    public static final int CLIENT_INTERPOLATION_DELAY_TICKS = 6;
+    // broadphase cells for bullet hits, a bullet only tests hitboxes in its own cells
+    public static final float HIT_GRID_CELL_SIZE = 256f;
+    public static final int HIT_GRID_BUCKETS = 64;
+    // cells of the static map geometry index, bullets are only tested against platforms in their cells
+    public static final float MAP_GRID_CELL_SIZE = 256f;
+    // initial bullet slots of a game, grows when more bullets are flying
+    public static final int PROJECTILE_STORE_CAPACITY = 64;
+    // stress mode: extra bullets fired every tick until the maximum is flying, 0 turns it off
+    public static final int STRESS_BULLETS_PER_TICK = 0;
+    public static final int STRESS_MAX_BULLETS = 10000;
 
 }
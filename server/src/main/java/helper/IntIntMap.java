@@ -0,0 +1,89 @@
+package helper;
+
+import java.util.Arrays;
+
+/**
+ * Map from int keys to int values that doesn't box, for bullet ids on the tick path.
+ * Open addressing with linear probing. Clearing is constant time and keeps the arrays, so a map that is
+ * cleared and filled every tick only allocates while it grows.
+ */
+public class IntIntMap {
+    private int[] keys;
+    private int[] values;
+    // a slot is used if its generation is the map's current generation
+    private int[] generations;
+    private int generation = 1;
+    private int size = 0;
+    private int mask;
+
+    public IntIntMap() {
+        allocate(16);
+    }
+
+    private void allocate(int capacity) {
+        keys = new int[capacity];
+        values = new int[capacity];
+        generations = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    /**
+     * @return value of the key, defaultValue if the map doesn't contain the key
+     */
+    public int get(int key, int defaultValue) {
+        for (int i = index(key); generations[i] == generation; i = (i + 1) & mask) {
+            if (keys[i] == key) return values[i];
+        }
+        return defaultValue;
+    }
+
+    public void put(int key, int value) {
+        // kept at most half full, so probes stay short
+        if ((size + 1) * 2 > keys.length) grow();
+        int i = index(key);
+        for (; generations[i] == generation; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        generations[i] = generation;
+        keys[i] = key;
+        values[i] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        size = 0;
+        generation++;
+        // after 2^32 clears the old generations come back
+        if (generation == 0) {
+            Arrays.fill(generations, 0);
+            generation = 1;
+        }
+    }
+
+    private int index(int key) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        int[] oldGenerations = generations;
+        int oldGeneration = generation;
+        allocate(keys.length * 2);
+        generation = 1;
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldGenerations[i] == oldGeneration) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
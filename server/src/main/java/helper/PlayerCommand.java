@@ -0,0 +1,14 @@
+package helper;
+
+public class PlayerCommand {
+    // increases by one every client tick, used for dropping duplicates and acknowledging commands
+    public int sequence;
+    public float x;
+    public float y;
+    public Direction direction;
+    public Integer livesCount;
+    public float velX;
+    public float velY;
+    // -1 shoot left, 1 shoot right, 0 not shooting
+    public int isShooting;
+}
@@ -2,7 +2,8 @@ package helper;
 
 public class PlayerState {
     public int id;
-    public String name;
+    // index of the player in the game, names are sent once in PlayerNamesMessage
+    public int entityId;
     public float x;
     public float y;
     public Direction direction;
@@ -10,8 +11,13 @@ public class PlayerState {
     public float velX;
     public float velY;
     public int isShooting;
-    public Integer damage;
+    public int damage;
+    // knockback of the latest hit, applied by the client once per hitSequence
     public float applyForce;
     public int ammoCount;
     public boolean thisIsAI;
+    // sequence of the latest PlayerCommand the server has applied, acknowledges the client's input
+    public int lastInputSequence;
+    // number of times the player has been hit, stays in every snapshot so that a skipped or lost one doesn't lose the hit
+    public int hitSequence;
 }
@@ -0,0 +1,44 @@
+package helper;
+
+public class PlayerStateDelta {
+    // bits of changedFields, each bit marks a PlayerState field that differs from the baseline
+    public static final int ID = 1;
+    public static final int ENTITY_ID = 1 << 1;
+    public static final int X = 1 << 2;
+    public static final int Y = 1 << 3;
+    public static final int DIRECTION = 1 << 4;
+    public static final int LIVES_COUNT = 1 << 5;
+    public static final int VEL_X = 1 << 6;
+    public static final int VEL_Y = 1 << 7;
+    public static final int IS_SHOOTING = 1 << 8;
+    public static final int DAMAGE = 1 << 9;
+    public static final int APPLY_FORCE = 1 << 10;
+    public static final int AMMO_COUNT = 1 << 11;
+    public static final int THIS_IS_AI = 1 << 12;
+    public static final int LAST_INPUT_SEQUENCE = 1 << 13;
+    public static final int HIT_SEQUENCE = 1 << 14;
+
+    // index of the player in the GameStateMessage playerStates array
+    public int index;
+    public int changedFields;
+    // only the fields marked in changedFields are sent
+    public int id;
+    public int entityId;
+    public float x;
+    public float y;
+    public Direction direction;
+    public Integer livesCount;
+    public float velX;
+    public float velY;
+    public int isShooting;
+    public int damage;
+    public float applyForce;
+    public int ammoCount;
+    public boolean thisIsAI;
+    public int lastInputSequence;
+    public int hitSequence;
+
+    public boolean hasChanged(int field) {
+        return (changedFields & field) != 0;
+    }
+}
@@ -0,0 +1,165 @@
+package helper;
+
+import helper.packet.GameStateDeltaMessage;
+import helper.packet.GameStateMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import static helper.PlayerStateDelta.*;
+
+/**
+ * Encodes deltas between snapshots. The delta message and everything in it is reused by the next encode,
+ * so a delta has to be serialized before encoding another one.
+ */
+public class SnapshotDelta {
+    private static final int[] NO_BULLETS = new int[0];
+    private final GameStateDeltaMessage delta = new GameStateDeltaMessage();
+    // one delta per player index
+    private final List<PlayerStateDelta> playerDeltaPool = new ArrayList<>();
+    // arrays by length, the player deltas are sent with the array length
+    private final List<PlayerStateDelta[]> playerDeltaArrays = new ArrayList<>();
+    private final List<BulletDelta> bulletDeltaPool = new ArrayList<>();
+    // bulletId -> index in the baseline's bullet list
+    private final IntIntMap baselineBullets = new IntIntMap();
+    // baseline bullets that are still in the current snapshot
+    private boolean[] keptBullets = new boolean[0];
+    // removed bulletIds by length, sent with the array length like the player deltas
+    private final List<int[]> removedArrays = new ArrayList<>();
+
+    public SnapshotDelta() {
+        delta.newBullets = new ArrayList<>();
+        delta.changedBullets = new ArrayList<>();
+    }
+
+    /**
+     * Construct a delta that turns the baseline snapshot into the current snapshot.
+     * Only changed player fields and bullets are included.
+     * @param baseline snapshot that the client has acknowledged
+     * @param current snapshot of the current tick
+     * @return delta, valid until the next encode
+     */
+    public GameStateDeltaMessage encode(GameStateMessage baseline, GameStateMessage current) {
+        delta.tick = current.tick;
+        delta.baselineTick = baseline.tick;
+        delta.gameTime = current.gameTime;
+        delta.ufoPlayerX = current.ufoPlayerX;
+        delta.ufoPlayerY = current.ufoPlayerY;
+
+        // players
+        int changedPlayers = 0;
+        for (int i = 0; i < current.playerStates.length; i++) {
+            if (encodePlayer(i, baseline.playerStates[i], current.playerStates[i]).changedFields != 0) {
+                changedPlayers++;
+            }
+        }
+        while (playerDeltaArrays.size() <= changedPlayers) {
+            playerDeltaArrays.add(new PlayerStateDelta[playerDeltaArrays.size()]);
+        }
+        delta.playerDeltas = playerDeltaArrays.get(changedPlayers);
+        int index = 0;
+        for (int i = 0; i < current.playerStates.length; i++) {
+            PlayerStateDelta playerDelta = playerDeltaPool.get(i);
+            if (playerDelta.changedFields != 0) {
+                delta.playerDeltas[index++] = playerDelta;
+            }
+        }
+
+        // bullets
+        delta.newBullets.clear();
+        delta.changedBullets.clear();
+        if (baseline.bulletData.isEmpty() && current.bulletData.isEmpty()) {
+            delta.removedBullets = NO_BULLETS;
+            return delta;
+        }
+        List<BulletData> baselineData = baseline.bulletData;
+        List<BulletData> currentData = current.bulletData;
+        baselineBullets.clear();
+        if (keptBullets.length < baselineData.size()) {
+            keptBullets = new boolean[Math.max(baselineData.size(), keptBullets.length * 2)];
+        }
+        for (int i = 0; i < baselineData.size(); i++) {
+            baselineBullets.put(baselineData.get(i).bulletId, i);
+            keptBullets[i] = false;
+        }
+        for (int i = 0; i < currentData.size(); i++) {
+            BulletData bullet = currentData.get(i);
+            int oldIndex = baselineBullets.get(bullet.bulletId, -1);
+            if (oldIndex < 0) {
+                delta.newBullets.add(bullet);
+                continue;
+            }
+            keptBullets[oldIndex] = true;
+            BulletData old = baselineData.get(oldIndex);
+            if (old.x != bullet.x || old.isDisabled != bullet.isDisabled) {
+                if (delta.changedBullets.size() == bulletDeltaPool.size()) {
+                    bulletDeltaPool.add(new BulletDelta());
+                }
+                BulletDelta bulletDelta = bulletDeltaPool.get(delta.changedBullets.size());
+                bulletDelta.bulletId = bullet.bulletId;
+                bulletDelta.x = bullet.x;
+                bulletDelta.isDisabled = bullet.isDisabled;
+                delta.changedBullets.add(bulletDelta);
+            }
+        }
+        // baseline bullets that are not in the current snapshot have been removed since the baseline
+        int removedCount = 0;
+        for (int i = 0; i < baselineData.size(); i++) {
+            if (!keptBullets[i]) removedCount++;
+        }
+        while (removedArrays.size() <= removedCount) {
+            removedArrays.add(new int[removedArrays.size()]);
+        }
+        delta.removedBullets = removedArrays.get(removedCount);
+        int removedIndex = 0;
+        for (int i = 0; i < baselineData.size(); i++) {
+            if (!keptBullets[i]) delta.removedBullets[removedIndex++] = baselineData.get(i).bulletId;
+        }
+        return delta;
+    }
+
+    /**
+     * Compare each field of the player state and mark the changed ones.
+     */
+    private PlayerStateDelta encodePlayer(int index, PlayerState old, PlayerState current) {
+        if (index == playerDeltaPool.size()) {
+            playerDeltaPool.add(new PlayerStateDelta());
+        }
+        PlayerStateDelta delta = playerDeltaPool.get(index);
+        delta.index = index;
+        delta.changedFields = 0;
+        if (old.id != current.id) delta.changedFields |= ID;
+        if (old.entityId != current.entityId) delta.changedFields |= ENTITY_ID;
+        if (old.x != current.x) delta.changedFields |= X;
+        if (old.y != current.y) delta.changedFields |= Y;
+        if (old.direction != current.direction) delta.changedFields |= DIRECTION;
+        if (!Objects.equals(old.livesCount, current.livesCount)) delta.changedFields |= LIVES_COUNT;
+        if (old.velX != current.velX) delta.changedFields |= VEL_X;
+        if (old.velY != current.velY) delta.changedFields |= VEL_Y;
+        if (old.isShooting != current.isShooting) delta.changedFields |= IS_SHOOTING;
+        if (old.damage != current.damage) delta.changedFields |= DAMAGE;
+        if (old.applyForce != current.applyForce) delta.changedFields |= APPLY_FORCE;
+        if (old.ammoCount != current.ammoCount) delta.changedFields |= AMMO_COUNT;
+        if (old.thisIsAI != current.thisIsAI) delta.changedFields |= THIS_IS_AI;
+        if (old.lastInputSequence != current.lastInputSequence) delta.changedFields |= LAST_INPUT_SEQUENCE;
+        if (old.hitSequence != current.hitSequence) delta.changedFields |= HIT_SEQUENCE;
+
+        delta.id = current.id;
+        delta.entityId = current.entityId;
+        delta.x = current.x;
+        delta.y = current.y;
+        delta.direction = current.direction;
+        delta.livesCount = current.livesCount;
+        delta.velX = current.velX;
+        delta.velY = current.velY;
+        delta.isShooting = current.isShooting;
+        delta.damage = current.damage;
+        delta.applyForce = current.applyForce;
+        delta.ammoCount = current.ammoCount;
+        delta.thisIsAI = current.thisIsAI;
+        delta.lastInputSequence = current.lastInputSequence;
+        delta.hitSequence = current.hitSequence;
+        return delta;
+    }
+}
@@ -1,9 +0,0 @@
-package helper.packet;
-
-import helper.Direction;
-
-public class BulletMessage {
-    // shoot direction
-    public Direction direction;
-    public String name;
-}
\ No newline at end of file
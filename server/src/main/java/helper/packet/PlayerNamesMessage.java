@@ -0,0 +1,6 @@
+package helper.packet;
+
+public class PlayerNamesMessage {
+    // entityId -> player name, null until the player has sent its first position
+    public String[] names;
+}
@@ -1,14 +0,0 @@
-package helper.packet;
-
-import helper.Direction;
-
-public class PlayerPositionMessage {
-    public float x;
-    public float y;
-    public Direction direction;
-    public Integer livesCount;
-    public float velX;
-    public float velY;
-    public int isShooting;
-    public String name;
-}
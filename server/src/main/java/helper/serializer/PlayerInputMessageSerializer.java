@@ -0,0 +1,87 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import helper.Direction;
+import helper.PlayerCommand;
+import helper.packet.PlayerInputMessage;
+
+import static helper.serializer.WireFormat.*;
+
+public class PlayerInputMessageSerializer extends Serializer<PlayerInputMessage> {
+    // bits of the command flags byte
+    private static final int HAS_DIRECTION = 1;
+    private static final int DIRECTION_RIGHT = 1 << 1;
+    private static final int HAS_LIVES_COUNT = 1 << 2;
+    // isShooting is -1, 0 or 1, stored as 0..2
+    private static final int IS_SHOOTING_SHIFT = 3;
+
+    /**
+     * Commands are consecutive, so only the first sequence number is written in full.
+     */
+    @Override
+    public void write(Kryo kryo, Output output, PlayerInputMessage message) {
+        output.writeString(message.name);
+        output.writeBoolean(message.thisIsAI);
+        output.writeVarInt(message.lastSnapshotTick, false);
+        writeCount(output, message.commands == null ? 0 : message.commands.length, message.commands == null);
+        if (message.commands == null) return;
+        int previousSequence = 0;
+        for (PlayerCommand command : message.commands) {
+            output.writeVarInt(command.sequence - previousSequence, false);
+            previousSequence = command.sequence;
+            writeCommand(output, command);
+        }
+    }
+
+    @Override
+    public PlayerInputMessage read(Kryo kryo, Input input, Class<PlayerInputMessage> type) {
+        PlayerInputMessage message = new PlayerInputMessage();
+        message.name = input.readString();
+        message.thisIsAI = input.readBoolean();
+        message.lastSnapshotTick = input.readVarInt(false);
+        int count = readCount(input);
+        if (count < 0) return message;
+        message.commands = new PlayerCommand[count];
+        int previousSequence = 0;
+        for (int i = 0; i < count; i++) {
+            int sequence = previousSequence + input.readVarInt(false);
+            previousSequence = sequence;
+            message.commands[i] = readCommand(input, sequence);
+        }
+        return message;
+    }
+
+    private static void writeCommand(Output output, PlayerCommand command) {
+        int flags = 0;
+        if (command.direction != null) flags |= HAS_DIRECTION;
+        if (command.direction == Direction.RIGHT) flags |= DIRECTION_RIGHT;
+        if (command.livesCount != null) flags |= HAS_LIVES_COUNT;
+        flags |= (command.isShooting + 1) << IS_SHOOTING_SHIFT;
+        output.writeByte(flags);
+        writePosition(output, command.x);
+        writePosition(output, command.y);
+        writeVelocity(output, command.velX);
+        writeVelocity(output, command.velY);
+        // lives can go below zero while a dead player keeps falling
+        if (command.livesCount != null) output.writeVarInt(command.livesCount, false);
+    }
+
+    private static PlayerCommand readCommand(Input input, int sequence) {
+        PlayerCommand command = new PlayerCommand();
+        command.sequence = sequence;
+        int flags = input.readByte() & 0xFF;
+        if ((flags & HAS_DIRECTION) != 0) {
+            command.direction = (flags & DIRECTION_RIGHT) != 0 ? Direction.RIGHT : Direction.LEFT;
+        }
+        command.isShooting = (flags >> IS_SHOOTING_SHIFT) - 1;
+        command.x = readPosition(input);
+        command.y = readPosition(input);
+        command.velX = readVelocity(input);
+        command.velY = readVelocity(input);
+        if ((flags & HAS_LIVES_COUNT) != 0) command.livesCount = input.readVarInt(false);
+        return command;
+    }
+}
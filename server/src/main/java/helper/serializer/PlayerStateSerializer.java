@@ -0,0 +1,74 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import helper.Direction;
+import helper.PlayerState;
+
+import static helper.serializer.WireFormat.*;
+
+public class PlayerStateSerializer extends Serializer<PlayerState> {
+    // bits of the flags byte
+    private static final int THIS_IS_AI = 1;
+    private static final int HAS_DIRECTION = 1 << 1;
+    private static final int DIRECTION_RIGHT = 1 << 2;
+    private static final int HAS_LIVES_COUNT = 1 << 3;
+    // isShooting is -1, 0 or 1, stored as 0..2 in the two highest bits
+    private static final int IS_SHOOTING_SHIFT = 4;
+
+    /**
+     * Write booleans, nullability and shooting direction into a single flags byte,
+     * positions as fixed-point varints and the remaining ints as varints.
+     */
+    @Override
+    public void write(Kryo kryo, Output output, PlayerState ps) {
+        int flags = 0;
+        if (ps.thisIsAI) flags |= THIS_IS_AI;
+        if (ps.direction != null) flags |= HAS_DIRECTION;
+        if (ps.direction == Direction.RIGHT) flags |= DIRECTION_RIGHT;
+        if (ps.livesCount != null) flags |= HAS_LIVES_COUNT;
+        flags |= (ps.isShooting + 1) << IS_SHOOTING_SHIFT;
+        output.writeByte(flags);
+
+        output.writeVarInt(ps.id, true);
+        output.writeByte(ps.entityId);
+        writePosition(output, ps.x);
+        writePosition(output, ps.y);
+        writeVelocity(output, ps.velX);
+        writeVelocity(output, ps.velY);
+        writeForce(output, ps.applyForce);
+        output.writeVarInt(ps.ammoCount, true);
+        output.writeVarInt(ps.lastInputSequence, false);
+        output.writeVarInt(ps.hitSequence, true);
+        // lives can go below zero while a dead player keeps falling
+        if (ps.livesCount != null) output.writeVarInt(ps.livesCount, false);
+        output.writeVarInt(ps.damage, true);
+    }
+
+    @Override
+    public PlayerState read(Kryo kryo, Input input, Class<PlayerState> type) {
+        PlayerState ps = new PlayerState();
+        int flags = input.readByte() & 0xFF;
+        ps.thisIsAI = (flags & THIS_IS_AI) != 0;
+        if ((flags & HAS_DIRECTION) != 0) {
+            ps.direction = (flags & DIRECTION_RIGHT) != 0 ? Direction.RIGHT : Direction.LEFT;
+        }
+        ps.isShooting = (flags >> IS_SHOOTING_SHIFT) - 1;
+
+        ps.id = input.readVarInt(true);
+        ps.entityId = input.readByte();
+        ps.x = readPosition(input);
+        ps.y = readPosition(input);
+        ps.velX = readVelocity(input);
+        ps.velY = readVelocity(input);
+        ps.applyForce = readForce(input);
+        ps.ammoCount = input.readVarInt(true);
+        ps.lastInputSequence = input.readVarInt(false);
+        ps.hitSequence = input.readVarInt(true);
+        if ((flags & HAS_LIVES_COUNT) != 0) ps.livesCount = input.readVarInt(false);
+        ps.damage = input.readVarInt(true);
+        return ps;
+    }
+}
@@ -0,0 +1,56 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+
+import static helper.Constants.POSITION_PRECISION;
+import static helper.Constants.VELOCITY_PRECISION;
+
+/**
+ * Shared helpers for the hand-written serializers.
+ * Floats are quantized to fixed-point integers and written as zigzag varints,
+ * so that small values (most of the map, most velocities) take 1-2 bytes instead of 4.
+ */
+public class WireFormat {
+
+    public static void writePosition(Output output, float value) {
+        output.writeVarInt(Math.round(value * POSITION_PRECISION), false);
+    }
+
+    public static float readPosition(Input input) {
+        return input.readVarInt(false) / POSITION_PRECISION;
+    }
+
+    public static void writeVelocity(Output output, float value) {
+        output.writeVarInt(Math.round(value * VELOCITY_PRECISION), false);
+    }
+
+    public static float readVelocity(Input input) {
+        return input.readVarInt(false) / VELOCITY_PRECISION;
+    }
+
+    /**
+     * Bullet hit force is in the thousands, whole units are precise enough.
+     */
+    public static void writeForce(Output output, float value) {
+        output.writeVarInt(Math.round(value), false);
+    }
+
+    public static float readForce(Input input) {
+        return input.readVarInt(false);
+    }
+
+    /**
+     * Write a collection or array size, null is encoded as 0.
+     */
+    public static void writeCount(Output output, int count, boolean isNull) {
+        output.writeVarInt(isNull ? 0 : count + 1, true);
+    }
+
+    /**
+     * @return size of the collection or -1 if it was null
+     */
+    public static int readCount(Input input) {
+        return input.readVarInt(true) - 1;
+    }
+}
@@ -0,0 +1,69 @@
+package ee.taltech.americandream.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static helper.Constants.HIT_GRID_CELL_SIZE;
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitGridTest {
+    private static final int ENTITY_COUNT = 10;
+    private final HitGrid grid = new HitGrid(ENTITY_COUNT);
+    private final int[] result = new int[ENTITY_COUNT];
+
+    private int[] query(float minX, float minY, float maxX, float maxY) {
+        int count = grid.query(minX, minY, maxX, maxY, result);
+        int[] candidates = Arrays.copyOf(result, count);
+        Arrays.sort(candidates);
+        return candidates;
+    }
+
+    @Test
+    void findsEntitiesInTheQueriedCells() {
+        grid.insert(3, 10, 10, 40, 60);
+        grid.insert(5, -40, -60, -10, -10);
+
+        assertArrayEquals(new int[]{3}, query(20, 20, 25, 25));
+        assertArrayEquals(new int[]{5}, query(-20, -20, -15, -15));
+        assertArrayEquals(new int[]{3, 5}, query(-20, -20, 25, 25));
+    }
+
+    @Test
+    void entityCoveringSeveralCellsIsReturnedOnce() {
+        float size = HIT_GRID_CELL_SIZE * 3;
+        grid.insert(1, 0, 0, size, size);
+
+        assertArrayEquals(new int[]{1}, query(0, 0, size, size));
+        // the next query returns it again
+        assertArrayEquals(new int[]{1}, query(0, 0, size, size));
+    }
+
+    @Test
+    void bucketsGrow() {
+        for (int entity = 0; entity < ENTITY_COUNT; entity++) {
+            grid.insert(entity, 1, 1, 2, 2);
+        }
+
+        assertEquals(ENTITY_COUNT, query(1, 1, 2, 2).length);
+    }
+
+    @Test
+    void clearRemovesAllEntities() {
+        grid.insert(2, 0, 0, 10, 10);
+        grid.clear();
+
+        assertEquals(0, query(0, 0, 10, 10).length);
+        grid.insert(4, 0, 0, 10, 10);
+        assertArrayEquals(new int[]{4}, query(0, 0, 10, 10));
+    }
+
+    @Test
+    void movingBulletFindsEntityAlongItsPath() {
+        // the query covers the whole move of the bullet, like in Game.checkForBulletHits
+        float targetX = HIT_GRID_CELL_SIZE * 2.5f;
+        grid.insert(7, targetX, 0, targetX + 20, 40);
+
+        assertArrayEquals(new int[]{7}, query(0, 10, targetX + 100, 20));
+    }
+}
@@ -0,0 +1,44 @@
+package ee.taltech.americandream.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HitboxTest {
+    // 10x10 bullet at x 0..10, target 20x40 at x 100..120
+    private static float sweep(float minX, float moveX) {
+        return Hitbox.sweep(minX, 0, minX + 10, 10, moveX, 100, -20, 120, 20);
+    }
+
+    @Test
+    void fastBulletDoesNotTunnelThroughTarget() {
+        // starts in front of the target and ends behind it, the end positions never overlap it
+        assertEquals(0.3f, sweep(0, 300), 1e-6f);
+        assertEquals(0.3f, sweep(210, -300), 1e-6f);
+    }
+
+    @Test
+    void moveThatStopsShortDoesNotHit() {
+        assertEquals(-1, sweep(0, 50));
+        // touching edges do not count
+        assertEquals(-1, sweep(0, 90));
+    }
+
+    @Test
+    void movingAwayDoesNotHit() {
+        assertEquals(-1, sweep(0, -300));
+        assertEquals(-1, sweep(130, 300));
+    }
+
+    @Test
+    void overlappingAtStartHitsImmediately() {
+        assertEquals(0, sweep(95, 300));
+        assertEquals(0, sweep(95, 0));
+        assertEquals(-1, sweep(0, 0));
+    }
+
+    @Test
+    void noVerticalOverlapDoesNotHit() {
+        assertEquals(-1, Hitbox.sweep(0, 20, 10, 30, 300, 100, -20, 120, 20));
+    }
+}
@@ -0,0 +1,56 @@
+package ee.taltech.americandream.server;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses the maps the client ships, copied into the server's resources by the build.
+ * City has a one-way platform at x 704..850, y 864..896 and a solid block at x 928..1120, y 0..832.
+ */
+class MapCollisionTest {
+    private final MapCollision city = MapCollision.get("City");
+
+    // 10x10 bullet
+    private static float sweep(MapCollision map, float minX, float minY, float moveX) {
+        return map.sweep(minX, minY, minX + 10, minY + 10, moveX);
+    }
+
+    @Test
+    void bulletHitsSolidBlock() {
+        assertEquals(118 / 300f, sweep(city, 800, 500, 300), 1e-5f);
+        assertEquals(10 / 300f, sweep(city, 1130, 500, -300), 1e-5f);
+    }
+
+    @Test
+    void fastBulletDoesNotTunnelThroughSolidBlock() {
+        assertEquals(118 / 2000f, sweep(city, 800, 500, 2000), 1e-5f);
+    }
+
+    @Test
+    void bulletPassesThroughOneWayPlatform() {
+        assertEquals(-1, sweep(city, 600, 870, 200));
+    }
+
+    @Test
+    void oneWayPlatformsCanBeStoodOn() {
+        assertEquals(896, city.getSurfaceY(750));
+        assertEquals(832, city.getSurfaceY(1000));
+        assertTrue(Float.isNaN(city.getSurfaceY(-100)));
+    }
+
+    @Test
+    void mapOfOnlyOneWayPlatformsStopsNoBullets() {
+        MapCollision swamp = MapCollision.get("Swamp");
+
+        assertEquals(-1, sweep(swamp, -1000, 200, 3000));
+        assertEquals(-1, sweep(swamp, 2000, 300, -3000));
+        assertEquals(224.182f, swamp.getSurfaceY(swamp.getCenterX()), 1e-3f);
+    }
+
+    @Test
+    void mapsAreLoadedOnce() {
+        assertSame(city, MapCollision.get(null));
+        assertSame(city, MapCollision.get("unknown"));
+    }
+}
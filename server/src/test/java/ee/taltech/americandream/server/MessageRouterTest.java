@@ -0,0 +1,117 @@
+package ee.taltech.americandream.server;
+
+import com.esotericsoftware.kryonet.Connection;
+import ee.taltech.americandream.server.MessageRouter.Scope;
+import helper.packet.GameLeaveMessage;
+import helper.packet.JoinLobbyMessage;
+import helper.packet.MapSelectionMessage;
+import helper.packet.PlayerInputMessage;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MessageRouterTest {
+    private final MessageRouter router = MessageRouter.getInstance();
+    // the router is shared, so every test uses its own connection
+    private final Connection connection = new Connection() {
+    };
+    private final RecordingSession server = new RecordingSession();
+    private final RecordingSession lobby = new RecordingSession();
+    private final RecordingSession match = new RecordingSession();
+
+    /**
+     * Records the names of the received message classes, "disconnected" when the connection is closed.
+     */
+    private static class RecordingSession implements Session {
+        private final List<String> events = new ArrayList<>();
+
+        @Override
+        public void received(Connection connection, Object message) {
+            events.add(message.getClass().getSimpleName());
+        }
+
+        @Override
+        public void disconnected(Connection connection) {
+            events.add("disconnected");
+        }
+    }
+
+    @AfterEach
+    void removeConnection() {
+        router.disconnected(connection);
+        router.setServerSession(null);
+    }
+
+    @Test
+    void messagesGoToTheSessionsOfTheirScopes() {
+        router.setServerSession(server);
+        router.connected(connection);
+        router.attach(connection, Scope.LOBBY, lobby);
+        router.attach(connection, Scope.MATCH, match);
+
+        router.received(connection, new JoinLobbyMessage());
+        router.received(connection, new MapSelectionMessage());
+        router.received(connection, new PlayerInputMessage());
+        router.received(connection, new GameLeaveMessage());
+        // not routed
+        router.received(connection, "keep alive");
+
+        assertEquals(List.of("JoinLobbyMessage"), server.events);
+        assertEquals(List.of("MapSelectionMessage", "GameLeaveMessage"), lobby.events);
+        assertEquals(List.of("PlayerInputMessage", "GameLeaveMessage"), match.events);
+    }
+
+    @Test
+    void attachReplacesTheSessionOfTheScope() {
+        RecordingSession nextMatch = new RecordingSession();
+        router.connected(connection);
+        router.attach(connection, Scope.MATCH, match);
+        router.attach(connection, Scope.MATCH, nextMatch);
+        // the old match ending doesn't detach the new one
+        router.detach(connection, Scope.MATCH, match);
+
+        router.received(connection, new PlayerInputMessage());
+
+        assertEquals(List.of(), match.events);
+        assertEquals(List.of("PlayerInputMessage"), nextMatch.events);
+    }
+
+    @Test
+    void detachedSessionReceivesNothing() {
+        router.connected(connection);
+        router.attach(connection, Scope.LOBBY, lobby);
+        router.detach(connection, Scope.LOBBY, lobby);
+
+        router.received(connection, new MapSelectionMessage());
+        router.disconnected(connection);
+
+        assertEquals(List.of(), lobby.events);
+    }
+
+    @Test
+    void disconnectIsReportedToTheCurrentSessionsOnce() {
+        router.connected(connection);
+        router.attach(connection, Scope.LOBBY, lobby);
+        router.attach(connection, Scope.MATCH, match);
+
+        router.disconnected(connection);
+        router.disconnected(connection);
+        router.received(connection, new GameLeaveMessage());
+
+        assertEquals(List.of("disconnected"), lobby.events);
+        assertEquals(List.of("disconnected"), match.events);
+    }
+
+    @Test
+    void attachingToClosedConnectionReportsDisconnect() {
+        router.attach(connection, Scope.MATCH, match);
+
+        router.received(connection, new PlayerInputMessage());
+
+        assertEquals(List.of("disconnected"), match.events);
+    }
+}
@@ -0,0 +1,77 @@
+package ee.taltech.americandream.server;
+
+import org.junit.jupiter.api.Test;
+
+import static helper.Constants.BOUNDS;
+import static helper.Constants.UFO_ENTITY_ID;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectileStoreTest {
+    private static final float[] OWNER_XS = {0, 0};
+    private final ProjectileStore store = new ProjectileStore(2);
+
+    @Test
+    void disabledBulletIsReportedAtOnceAndFreedByUpdate() {
+        int slot = store.spawn(0, 10, 20, 5, Weapons.DEFAULT_ID);
+        store.disable(slot);
+        store.disable(slot);
+
+        assertEquals(1, store.getRemovedCount());
+        assertEquals(store.getBulletId(slot), store.getRemovedId(0));
+        assertTrue(store.isActive(slot));
+
+        store.update(OWNER_XS, 0);
+        assertFalse(store.isActive(slot));
+        assertEquals(0, store.getActiveCount());
+        assertEquals(1, store.getRemovedCount());
+    }
+
+    @Test
+    void freedSlotIsReusedWithNewId() {
+        int first = store.spawn(0, 0, 0, 5, Weapons.DEFAULT_ID);
+        int second = store.spawn(1, 0, 0, -5, Weapons.DEFAULT_ID);
+        int firstId = store.getBulletId(first);
+        store.disable(first);
+        store.update(OWNER_XS, 0);
+        store.clearRemoved();
+
+        int reused = store.spawn(1, 30, 40, 7, 2);
+
+        assertEquals(first, reused);
+        assertEquals(2, store.getSlotCount());
+        assertNotEquals(firstId, store.getBulletId(reused));
+        assertNotEquals(store.getBulletId(second), store.getBulletId(reused));
+        assertFalse(store.isDisabled(reused));
+        assertEquals(1, store.getOwner(reused));
+        assertEquals(30, store.getX(reused));
+        assertEquals(2, store.getWeapon(reused));
+        assertEquals(0, store.getRemovedCount());
+    }
+
+    @Test
+    void growsWhenNoSlotIsFree() {
+        for (int i = 0; i < 20; i++) {
+            assertEquals(i, store.spawn(0, i, 0, 1, Weapons.DEFAULT_ID));
+        }
+
+        assertEquals(20, store.getActiveCount());
+        assertEquals(20, store.getSlotCount());
+        assertEquals(19, store.getX(19));
+    }
+
+    @Test
+    void bulletOutOfBoundsIsRemoved() {
+        int slot = store.spawn(0, BOUNDS - 5, 0, 10, Weapons.DEFAULT_ID);
+        int ufoBullet = store.spawn(UFO_ENTITY_ID, 500, 0, 10, Weapons.DEFAULT_ID);
+
+        store.update(OWNER_XS, 500);
+
+        assertEquals(BOUNDS + 5, store.getX(slot));
+        assertFalse(store.isActive(slot));
+        assertEquals(1, store.getRemovedCount());
+        assertEquals(slot, store.getRemovedSlot(0));
+        // UFO bullets are bounded by the UFO, not by a player
+        assertTrue(store.isActive(ufoBullet));
+        assertEquals(510, store.getX(ufoBullet));
+    }
+}
@@ -0,0 +1,91 @@
+package ee.taltech.americandream.server;
+
+import helper.BulletData;
+import helper.PlayerState;
+import helper.packet.GameStateMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
+
+import static helper.Constants.INTEREST_HALF_WIDTH;
+import static helper.Constants.MAX_SNAPSHOT_BYTES;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotPackerTest {
+    private final SnapshotPacker packer = new SnapshotPacker();
+    private final SnapshotBroadcast broadcast = new SnapshotBroadcast();
+
+    private static GameStateMessage snapshot(int tick, int bulletCount, float bulletX) {
+        GameStateMessage snapshot = new GameStateMessage();
+        snapshot.tick = tick;
+        snapshot.gameTime = 300;
+        snapshot.playerStates = new PlayerState[]{new PlayerState(), new PlayerState()};
+        snapshot.bulletData = new ArrayList<>();
+        for (int i = 0; i < bulletCount; i++) {
+            BulletData bullet = new BulletData();
+            bullet.bulletId = i + 1;
+            // further away the higher the id
+            bullet.x = bulletX + i;
+            bullet.y = 0;
+            bullet.speedBullet = 6;
+            snapshot.bulletData.add(bullet);
+        }
+        return snapshot;
+    }
+
+    private GameStateMessage pack(GameStateMessage snapshot) {
+        broadcast.reset(snapshot);
+        return packer.pack(broadcast, 0, 0);
+    }
+
+    @Test
+    void snapshotThatFitsIsSentAsItIs() {
+        GameStateMessage snapshot = snapshot(1, 5, 10);
+
+        assertSame(snapshot, pack(snapshot));
+        GameStateMessage withoutBullets = snapshot(2, 0, 0);
+        assertSame(withoutBullets, pack(withoutBullets));
+    }
+
+    @Test
+    void packedSnapshotStaysWithinBudget() {
+        GameStateMessage snapshot = snapshot(1, 400, 10);
+        assertTrue(new SerializedMessage().write(snapshot).getLength() > MAX_SNAPSHOT_BYTES);
+
+        GameStateMessage packed = pack(snapshot);
+
+        assertNotSame(snapshot, packed);
+        assertFalse(packed.bulletData.isEmpty());
+        assertTrue(packed.bulletData.size() < snapshot.bulletData.size());
+        assertTrue(new SerializedMessage().write(packed).getLength() <= MAX_SNAPSHOT_BYTES);
+        // nothing has been sent yet, so the closest bullets go first
+        assertEquals(1, packed.bulletData.get(0).bulletId);
+        assertSame(snapshot.playerStates, packed.playerStates);
+    }
+
+    @Test
+    void bulletsOutsideTheInterestAreaAreLeftOut() {
+        GameStateMessage snapshot = snapshot(1, 3, INTEREST_HALF_WIDTH - 1);
+
+        GameStateMessage packed = pack(snapshot);
+
+        assertEquals(2, packed.bulletData.size());
+        assertEquals(1, packed.bulletData.get(0).bulletId);
+        assertEquals(2, packed.bulletData.get(1).bulletId);
+    }
+
+    @Test
+    void leftOutBulletsAreSentOnLaterTicks() {
+        Set<Integer> sent = new HashSet<>();
+        for (int tick = 1; tick <= 10; tick++) {
+            GameStateMessage packed = pack(snapshot(tick, 400, 10));
+            assertTrue(new SerializedMessage().write(packed).getLength() <= MAX_SNAPSHOT_BYTES);
+            for (BulletData bullet : packed.bulletData) {
+                sent.add(bullet.bulletId);
+            }
+        }
+        assertEquals(400, sent.size());
+    }
+}
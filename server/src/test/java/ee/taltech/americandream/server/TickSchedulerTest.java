@@ -0,0 +1,71 @@
+package ee.taltech.americandream.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static helper.Constants.MAX_CATCH_UP_TICKS;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs on the real clock with long ticks, the sleeps stand in for ticks that take long.
+ */
+class TickSchedulerTest {
+    private static final long TICK_MILLIS = 100;
+    private static final long TICK_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS);
+    // waking up after a deadline is not exact
+    private static final long TOLERANCE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private final TickScheduler scheduler = new TickScheduler((int) (1000 / TICK_MILLIS));
+
+    @Test
+    void slowTicksDoNotMoveTheDeadlines() throws InterruptedException {
+        long start = System.nanoTime();
+        for (int tick = 1; tick <= 4; tick++) {
+            assertEquals(0, scheduler.waitForNextTick());
+            assertFalse(scheduler.isLate());
+            Thread.sleep(TICK_MILLIS / 2);
+        }
+        assertEquals(0, scheduler.waitForNextTick());
+
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= 5 * TICK_NANOS);
+        assertTrue(elapsed < 5 * TICK_NANOS + TOLERANCE_NANOS);
+    }
+
+    @Test
+    void lateLoopCatchesUpWithoutWaiting() throws InterruptedException {
+        long start = System.nanoTime();
+        scheduler.waitForNextTick();
+        Thread.sleep(TICK_MILLIS * 5 / 2);
+
+        int ticks = 1;
+        do {
+            assertEquals(0, scheduler.waitForNextTick());
+            ticks++;
+        } while (scheduler.isLate());
+
+        // the ticks at 200 and 300 ms are run right away, the one at 400 ms waits for its deadline
+        assertTrue(ticks >= 4);
+        long elapsed = System.nanoTime() - start;
+        assertTrue(elapsed >= ticks * TICK_NANOS);
+        assertTrue(elapsed < ticks * TICK_NANOS + TOLERANCE_NANOS);
+    }
+
+    @Test
+    void ticksBeyondTheCatchUpLimitAreDropped() throws InterruptedException {
+        scheduler.waitForNextTick();
+        Thread.sleep(TICK_MILLIS * (MAX_CATCH_UP_TICKS + 3));
+
+        long dropped = scheduler.waitForNextTick();
+        assertTrue(dropped >= 2);
+        assertTrue(scheduler.isLate());
+
+        int lateTicks = 0;
+        while (true) {
+            assertEquals(0, scheduler.waitForNextTick());
+            if (!scheduler.isLate()) break;
+            lateTicks++;
+        }
+        assertEquals(MAX_CATCH_UP_TICKS, lateTicks);
+    }
+}
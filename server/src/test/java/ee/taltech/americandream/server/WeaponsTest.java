@@ -0,0 +1,59 @@
+package ee.taltech.americandream.server;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeaponsTest {
+
+    private static Weapon[] parse(String csv) throws IOException {
+        return Weapons.parse(new BufferedReader(new StringReader(csv)));
+    }
+
+    @Test
+    void parsesRowsAndSkipsComments() throws IOException {
+        Weapon[] weapons = parse("""
+                # id,name,character,ammo,ammoRegenTime,bulletForce,bulletSpeed,shootDelay,damage
+                0,pistol,,10,0.75,1000,5,0.3,2
+
+                 1 , sniper , Biden , 5 , 0 , 4000 , 9 , 1 , 8
+                """);
+
+        assertEquals(2, weapons.length);
+        assertEquals(new Weapon(0, "pistol", "", 10, 0.75f, 1000, 5, 0.3f, 2), weapons[0]);
+        assertEquals(new Weapon(1, "sniper", "Biden", 5, 0, 4000, 9, 1, 8), weapons[1]);
+    }
+
+    @Test
+    void idsMustBeInOrder() {
+        assertThrows(IllegalStateException.class, () -> parse("""
+                0,pistol,,10,0.75,1000,5,0.3,2
+                2,smg,Trump,20,0,800,6,0.1,2
+                """));
+    }
+
+    @Test
+    void tableMustHaveWeapons() {
+        assertThrows(IllegalStateException.class, () -> parse("# no weapons\n"));
+    }
+
+    @Test
+    void badNumberIsReported() {
+        assertThrows(NumberFormatException.class, () -> parse("0,pistol,,ten,0.75,1000,5,0.3,2\n"));
+    }
+
+    @Test
+    void shippedTableIsLoaded() {
+        assertEquals("pistol", Weapons.getDefault().name());
+        assertTrue(Weapons.getDefault().character().isEmpty());
+        assertEquals(1, Weapons.gunIdOf("Biden_3"));
+        assertEquals(2, Weapons.gunIdOf("Trump"));
+        assertEquals(-1, Weapons.gunIdOf("Nobody_1"));
+        assertEquals(-1, Weapons.gunIdOf(null));
+        assertEquals(Weapons.gunIdOf("Obama_2"), Weapons.get(Weapons.gunIdOf("Obama_2")).id());
+    }
+}
@@ -0,0 +1,61 @@
+package helper;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntIntMapTest {
+    private final IntIntMap map = new IntIntMap();
+
+    @Test
+    void putReplacesValue() {
+        map.put(7, 1);
+        map.put(7, 2);
+
+        assertEquals(2, map.get(7, -1));
+        assertEquals(-1, map.get(8, -1));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void growKeepsAllEntries() {
+        // well past the initial 16 slots, including negative keys and zero
+        for (int key = -500; key < 500; key++) {
+            map.put(key, key * 3);
+        }
+
+        assertEquals(1000, map.size());
+        for (int key = -500; key < 500; key++) {
+            assertEquals(key * 3, map.get(key, Integer.MIN_VALUE));
+        }
+        assertEquals(Integer.MIN_VALUE, map.get(500, Integer.MIN_VALUE));
+    }
+
+    @Test
+    void clearRemovesAllEntries() {
+        for (int key = 0; key < 100; key++) {
+            map.put(key, key);
+        }
+        map.clear();
+
+        assertEquals(0, map.size());
+        for (int key = 0; key < 100; key++) {
+            assertEquals(-1, map.get(key, -1));
+        }
+    }
+
+    @Test
+    void mapCanBeRefilledAfterClear() {
+        for (int tick = 0; tick < 50; tick++) {
+            map.clear();
+            // keys move on every tick, like bullet ids
+            for (int key = tick; key < tick + 40; key++) {
+                map.put(key, tick);
+            }
+            assertEquals(40, map.size());
+            assertEquals(-1, map.get(tick - 1, -1));
+            assertEquals(tick, map.get(tick, -1));
+            assertEquals(tick, map.get(tick + 39, -1));
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package helper;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import ee.taltech.americandream.server.GameServer;
+import helper.packet.GameStateDeltaMessage;
+import helper.packet.GameStateMessage;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+
+import static helper.PlayerStateDelta.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotDeltaTest {
+    private final SnapshotDelta snapshotDelta = new SnapshotDelta();
+
+    private static GameStateMessage snapshot(int tick, PlayerState... playerStates) {
+        GameStateMessage snapshot = new GameStateMessage();
+        snapshot.tick = tick;
+        snapshot.gameTime = 300 - tick / 60;
+        snapshot.playerStates = playerStates;
+        snapshot.bulletData = new ArrayList<>();
+        return snapshot;
+    }
+
+    private static PlayerState player(int entityId, float x, float y) {
+        PlayerState ps = new PlayerState();
+        ps.id = entityId + 10;
+        ps.entityId = entityId;
+        ps.x = x;
+        ps.y = y;
+        ps.direction = Direction.LEFT;
+        ps.livesCount = 3;
+        return ps;
+    }
+
+    private static BulletData bullet(int bulletId, float x) {
+        BulletData bullet = new BulletData();
+        bullet.bulletId = bulletId;
+        bullet.x = x;
+        bullet.y = 200;
+        bullet.speedBullet = 6;
+        return bullet;
+    }
+
+    @Test
+    void unchangedPlayersAreLeftOut() {
+        GameStateMessage baseline = snapshot(10, player(0, 100, 200), player(1, 400, 200));
+        PlayerState moved = player(1, 410, 200);
+        moved.damage = 12;
+        GameStateMessage current = snapshot(12, player(0, 100, 200), moved);
+
+        GameStateDeltaMessage delta = snapshotDelta.encode(baseline, current);
+
+        assertEquals(12, delta.tick);
+        assertEquals(10, delta.baselineTick);
+        assertEquals(1, delta.playerDeltas.length);
+        assertEquals(1, delta.playerDeltas[0].index);
+        assertEquals(X | DAMAGE, delta.playerDeltas[0].changedFields);
+        assertEquals(410, delta.playerDeltas[0].x);
+        assertEquals(12, delta.playerDeltas[0].damage);
+    }
+
+    @Test
+    void bulletsAreSplitIntoNewChangedAndRemoved() {
+        GameStateMessage baseline = snapshot(10, player(0, 100, 200));
+        baseline.bulletData.add(bullet(1, 100));
+        baseline.bulletData.add(bullet(2, 200));
+        baseline.bulletData.add(bullet(3, 300));
+        GameStateMessage current = snapshot(11, player(0, 100, 200));
+        // 1 is unchanged, 2 has moved, 3 is gone and 4 is new
+        current.bulletData.add(bullet(1, 100));
+        current.bulletData.add(bullet(2, 206));
+        current.bulletData.add(bullet(4, 50));
+
+        GameStateDeltaMessage delta = snapshotDelta.encode(baseline, current);
+
+        assertEquals(0, delta.playerDeltas.length);
+        assertEquals(1, delta.newBullets.size());
+        assertEquals(4, delta.newBullets.get(0).bulletId);
+        assertEquals(1, delta.changedBullets.size());
+        assertEquals(2, delta.changedBullets.get(0).bulletId);
+        assertEquals(206, delta.changedBullets.get(0).x);
+        assertArrayEquals(new int[]{3}, delta.removedBullets);
+    }
+
+    @Test
+    void deltaIsReusedByTheNextEncode() {
+        GameStateMessage baseline = snapshot(10, player(0, 100, 200));
+        baseline.bulletData.add(bullet(1, 100));
+        GameStateMessage current = snapshot(11, player(0, 104, 200));
+
+        assertArrayEquals(new int[]{1}, snapshotDelta.encode(baseline, current).removedBullets.clone());
+        GameStateDeltaMessage second = snapshotDelta.encode(current, current);
+        assertEquals(0, second.playerDeltas.length);
+        assertEquals(0, second.removedBullets.length);
+        assertTrue(second.newBullets.isEmpty());
+    }
+
+    @Test
+    void deltaSurvivesSerialization() {
+        Kryo kryo = new Kryo();
+        GameServer.registerClasses(kryo);
+        GameStateMessage baseline = snapshot(10, player(0, 100, 200), player(1, 400, 200));
+        baseline.bulletData.add(bullet(1, 100));
+        baseline.bulletData.add(bullet(2, 200));
+        PlayerState respawned = player(1, 1088, 1888);
+        respawned.livesCount = 2;
+        GameStateMessage current = snapshot(13, player(0, 100, 200), respawned);
+        current.bulletData.add(bullet(2, 218));
+        current.bulletData.add(bullet(5, 300));
+
+        Output output = new Output(2048);
+        kryo.writeClassAndObject(output, snapshotDelta.encode(baseline, current));
+        GameStateDeltaMessage read = (GameStateDeltaMessage) kryo.readClassAndObject(new Input(output.toBytes()));
+
+        assertEquals(13, read.tick);
+        assertEquals(10, read.baselineTick);
+        assertEquals(1, read.playerDeltas.length);
+        assertEquals(X | Y | LIVES_COUNT, read.playerDeltas[0].changedFields);
+        assertEquals(1888, read.playerDeltas[0].y);
+        assertEquals(2, read.playerDeltas[0].livesCount);
+        assertEquals(5, read.newBullets.get(0).bulletId);
+        assertEquals(218, read.changedBullets.get(0).x);
+        assertArrayEquals(new int[]{1}, read.removedBullets);
+    }
+}
@@ -0,0 +1,135 @@
+package helper.serializer;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import ee.taltech.americandream.server.GameServer;
+import helper.BulletData;
+import helper.Direction;
+import helper.PlayerState;
+import helper.PlayerStateDelta;
+import org.junit.jupiter.api.Test;
+
+import static helper.Constants.POSITION_PRECISION;
+import static helper.Constants.VELOCITY_PRECISION;
+import static helper.PlayerStateDelta.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SerializerRoundTripTest {
+    private final Kryo kryo = createKryo();
+
+    private static Kryo createKryo() {
+        Kryo kryo = new Kryo();
+        GameServer.registerClasses(kryo);
+        return kryo;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T roundTrip(T object) {
+        Output output = new Output(2048);
+        kryo.writeClassAndObject(output, object);
+        return (T) kryo.readClassAndObject(new Input(output.toBytes()));
+    }
+
+    @Test
+    void playerStateKeepsAllFieldsWithinQuantization() {
+        PlayerState ps = new PlayerState();
+        ps.id = 17;
+        ps.entityId = 3;
+        ps.x = 1043.27f;
+        ps.y = -12.6f;
+        ps.velX = 1.234f;
+        ps.velY = -9.876f;
+        ps.direction = Direction.RIGHT;
+        ps.livesCount = 2;
+        ps.isShooting = -1;
+        ps.damage = 140;
+        ps.applyForce = -2405.6f;
+        ps.ammoCount = 7;
+        ps.thisIsAI = true;
+        ps.lastInputSequence = 5400;
+        ps.hitSequence = 9;
+
+        PlayerState read = roundTrip(ps);
+
+        assertEquals(17, read.id);
+        assertEquals(3, read.entityId);
+        assertEquals(ps.x, read.x, 0.5f / POSITION_PRECISION);
+        assertEquals(ps.y, read.y, 0.5f / POSITION_PRECISION);
+        assertEquals(ps.velX, read.velX, 0.5f / VELOCITY_PRECISION);
+        assertEquals(ps.velY, read.velY, 0.5f / VELOCITY_PRECISION);
+        assertEquals(Direction.RIGHT, read.direction);
+        assertEquals(2, read.livesCount);
+        assertEquals(-1, read.isShooting);
+        assertEquals(140, read.damage);
+        assertEquals(-2406f, read.applyForce);
+        assertEquals(7, read.ammoCount);
+        assertTrue(read.thisIsAI);
+        assertEquals(5400, read.lastInputSequence);
+        assertEquals(9, read.hitSequence);
+    }
+
+    @Test
+    void playerStateKeepsNegativeLivesAndNulls() {
+        PlayerState ps = new PlayerState();
+        ps.livesCount = -2;
+        ps.lastInputSequence = -1;
+
+        PlayerState read = roundTrip(ps);
+
+        assertEquals(-2, read.livesCount);
+        assertNull(read.direction);
+        assertEquals(-1, read.lastInputSequence);
+
+        ps.livesCount = null;
+        ps.direction = Direction.LEFT;
+        read = roundTrip(ps);
+        assertNull(read.livesCount);
+        assertEquals(Direction.LEFT, read.direction);
+    }
+
+    @Test
+    void playerStateDeltaOnlyCarriesChangedFields() {
+        PlayerStateDelta delta = new PlayerStateDelta();
+        delta.index = 2;
+        delta.changedFields = X | DIRECTION | LIVES_COUNT | HIT_SEQUENCE;
+        delta.x = 300.3f;
+        // not marked as changed, must not be written
+        delta.y = 999;
+        delta.direction = null;
+        delta.livesCount = -1;
+        delta.hitSequence = 4;
+
+        PlayerStateDelta read = roundTrip(delta);
+
+        assertEquals(2, read.index);
+        assertEquals(delta.changedFields, read.changedFields);
+        assertEquals(300.5f, read.x);
+        assertEquals(0, read.y);
+        assertNull(read.direction);
+        assertEquals(-1, read.livesCount);
+        assertEquals(4, read.hitSequence);
+    }
+
+    @Test
+    void bulletDataKeepsFlagsAndUfoOwner() {
+        BulletData bullet = new BulletData();
+        bullet.ownerId = -1;
+        bullet.bulletId = 123_456;
+        bullet.x = 700.2f;
+        bullet.y = 930.75f;
+        bullet.speedBullet = -6.5f;
+        bullet.isDisabled = true;
+        bullet.shotWithGun = true;
+
+        BulletData read = roundTrip(bullet);
+
+        assertEquals(-1, read.ownerId);
+        assertEquals(123_456, read.bulletId);
+        assertEquals(bullet.x, read.x, 0.5f / POSITION_PRECISION);
+        assertEquals(bullet.y, read.y, 0.5f / POSITION_PRECISION);
+        assertEquals(-6.5f, read.speedBullet);
+        assertTrue(read.isDisabled);
+        assertTrue(read.shotWithGun);
+    }
+}